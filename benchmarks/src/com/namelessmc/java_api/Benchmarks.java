@@ -0,0 +1,28 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Runs JMH, writing results as JSON to {@code jmh-result.json} unless another format or file is specified
+ * using {@code -rf} and {@code -rff}.
+ */
+public class Benchmarks {
+
+	public static void main(final String[] args) throws Exception {
+		final List<String> arguments = new ArrayList<>(Arrays.asList(args));
+		if (!arguments.contains("-rf")) {
+			arguments.add("-rf");
+			arguments.add("json");
+		}
+		if (!arguments.contains("-rff")) {
+			arguments.add("-rff");
+			arguments.add("jmh-result.json");
+		}
+		Main.main(arguments.toArray(new String[0]));
+	}
+
+}
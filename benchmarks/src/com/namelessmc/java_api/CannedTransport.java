@@ -0,0 +1,53 @@
+package com.namelessmc.java_api;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transport answering every request with the same response without any I/O, to measure the client's own overhead.
+ */
+final class CannedTransport implements HttpTransport {
+
+	private final byte[] body;
+	private final String contentLength;
+
+	CannedTransport(final String json) {
+		this.body = json.getBytes(StandardCharsets.UTF_8);
+		this.contentLength = String.valueOf(this.body.length);
+	}
+
+	@Override
+	public Response send(final Request request) {
+		return new Response() {
+
+			@Override
+			public int getStatusCode() {
+				return 200;
+			}
+
+			@Override
+			public String getHeader(final String name) {
+				return name.equalsIgnoreCase("Content-Length") ? CannedTransport.this.contentLength : null;
+			}
+
+			@Override
+			public InputStream getBody() {
+				return new ByteArrayInputStream(CannedTransport.this.body);
+			}
+
+			@Override
+			public void close() {
+			}
+
+		};
+	}
+
+	static NamelessAPI api(final String json) {
+		return NamelessAPI.builder()
+				.apiUrl("http://localhost/index.php?route=/api/v2/" + StubWebsite.API_KEY)
+				.transport(new CannedTransport(json))
+				.build();
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Latency of single API calls through the full stack against the local stub website.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+	@Param({"url-connection", "pooled"})
+	public String transport;
+
+	private StubWebsite website;
+	private PooledHttpTransport pooled;
+	private NamelessAPI api;
+
+	@Setup
+	public void setUp() throws IOException {
+		this.website = new StubWebsite();
+		this.website.respond(Action.USER_INFO, Responses.userInfo());
+		this.website.respond(Action.GROUP_INFO, Responses.groupInfo(20));
+		this.website.respond(Action.LIST_USERS, Responses.listUsers(1000));
+
+		final NamelessApiBuilder builder = NamelessAPI.builder().apiUrl(this.website.getApiUrl());
+		if (this.transport.equals("pooled")) {
+			this.pooled = PooledHttpTransport.builder().build();
+			builder.transport(this.pooled);
+		}
+		this.api = builder.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (this.pooled != null) {
+			this.pooled.close();
+		}
+		this.website.close();
+	}
+
+	@Benchmark
+	public Website getWebsite() throws NamelessException {
+		return this.api.getWebsite();
+	}
+
+	@Benchmark
+	public Optional<NamelessUser> getUser() throws NamelessException {
+		return this.api.getUser(5);
+	}
+
+	@Benchmark
+	public List<Group> getAllGroups() throws NamelessException {
+		return this.api.getAllGroups();
+	}
+
+	@Benchmark
+	public List<NamelessUser> getRegisteredUsers() throws NamelessException {
+		return this.api.getRegisteredUsers();
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.namelessmc.java_api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares response decoding and request encoding of the JSON codecs with the tree based parsing the library used
+ * before codecs were introduced ({@code new String(bytes)} followed by {@link JsonParser#parseString(String)}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+	@Param({"userInfo", "groupInfo"})
+	public String response;
+
+	private final FastJsonCodec fast = new FastJsonCodec();
+	private final GsonJsonCodec gson = new GsonJsonCodec();
+
+	private byte[] bytes;
+	private JsonObject postBody;
+
+	@Setup
+	public void setUp() {
+		switch (this.response) {
+			case "userInfo":
+				this.bytes = Responses.userInfo().getBytes(StandardCharsets.UTF_8);
+				break;
+			case "groupInfo":
+				this.bytes = Responses.groupInfo(200).getBytes(StandardCharsets.UTF_8);
+				break;
+			default:
+				throw new IllegalArgumentException(this.response);
+		}
+		this.postBody = Responses.serverInfo(100);
+	}
+
+	@Benchmark
+	public JsonElement decodeTree() {
+		return JsonParser.parseString(new String(this.bytes, StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public JsonElement decodeGson() {
+		return this.gson.decode(this.bytes, 0, this.bytes.length);
+	}
+
+	@Benchmark
+	public JsonElement decodeFast() {
+		return this.fast.decode(this.bytes, 0, this.bytes.length);
+	}
+
+	@Benchmark
+	public byte[] encodeTree() {
+		return this.postBody.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public byte[] encodeFast() {
+		return this.fast.encode(this.postBody);
+	}
+
+}
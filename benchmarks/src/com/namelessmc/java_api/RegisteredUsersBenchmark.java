@@ -0,0 +1,53 @@
+package com.namelessmc.java_api;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding {@code listUsers} responses of different sizes, without network I/O. The response for 1M users
+ * is about 80 MB, so run with a large enough heap ({@code -jvmArgs -Xmx2g}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RegisteredUsersBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int users;
+
+	private NamelessAPI api;
+
+	@Setup
+	public void setUp() {
+		this.api = CannedTransport.api(Responses.listUsers(this.users));
+	}
+
+	@Benchmark
+	public List<NamelessUser> getRegisteredUsers() throws NamelessException {
+		return this.api.getRegisteredUsers();
+	}
+
+	@Benchmark
+	public long streamRegisteredUsers() throws NamelessException {
+		try (Stream<NamelessUser> users = this.api.streamRegisteredUsers()) {
+			return users.count();
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.namelessmc.java_api;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Client overhead of a GET request without network I/O: building the URL, and reading, decoding and checking
+ * the response in {@code makeConnection}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestHandlerBenchmark {
+
+	private final UUID uuid = UUID.fromString("b1e4e5a2-6ff3-460e-9e5f-7b6c94fc4cb0");
+
+	private RequestHandler requests;
+
+	@Setup
+	public void setUp() {
+		this.requests = CannedTransport.api(Responses.userInfo()).getRequestHandler();
+	}
+
+	@Benchmark
+	public String urlWithoutParameters() {
+		return this.requests.getUrlString(Action.GROUP_INFO);
+	}
+
+	@Benchmark
+	public String urlWithId() {
+		return this.requests.getUrlString(Action.USER_INFO, "id", 5);
+	}
+
+	@Benchmark
+	public String urlWithUuid() {
+		return this.requests.getUrlString(Action.USER_INFO, "uuid", this.uuid);
+	}
+
+	@Benchmark
+	public String urlWithEncodedUsername() {
+		return this.requests.getUrlString(Action.USER_INFO, "username", "Some User+Name");
+	}
+
+	@Benchmark
+	public JsonObject getUserInfo() throws NamelessException {
+		return this.requests.get(Action.USER_INFO, "id", 5);
+	}
+
+}
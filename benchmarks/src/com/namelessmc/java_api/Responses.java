@@ -0,0 +1,97 @@
+package com.namelessmc.java_api;
+
+import java.util.Random;
+import java.util.UUID;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Generates website responses and request bodies resembling those of a real website.
+ */
+final class Responses {
+
+	private Responses() {
+	}
+
+	static String userInfo() {
+		return "{\"exists\":true,\"id\":\"5\",\"username\":\"Derkades\",\"displayname\":\"Derkades\","
+				+ "\"uuid\":\"b1e4e5a26ff3460e9e5f7b6c94fc4cb0\",\"locale\":\"en_UK\","
+				+ "\"registered_timestamp\":\"1580000000\",\"last_online_timestamp\":\"1620000000\","
+				+ "\"banned\":false,\"validated\":true,\"language\":\"EnglishUK\",\"discord_id\":\"123456789012345678\","
+				+ "\"groups\":[{\"id\":1,\"name\":\"Member\",\"staff\":false,\"order\":3},{\"id\":2,\"name\":\"Admin\",\"staff\":true,\"order\":1}],"
+				+ "\"verification\":{\"email\":true,\"minecraft\":true,\"discord\":false},\"error\":false}";
+	}
+
+	/**
+	 * @param groups number of groups the user is in, in random order
+	 */
+	static String userInfo(final int groups) {
+		final JsonObject json = JsonParser.parseString(userInfo()).getAsJsonObject();
+		final JsonArray array = new JsonArray();
+		final Random random = new Random(groups);
+		for (int i = 1; i <= groups; i++) {
+			final JsonObject group = new JsonObject();
+			group.addProperty("id", i);
+			group.addProperty("name", "Group " + i);
+			group.addProperty("order", random.nextInt(100));
+			group.addProperty("staff", i % 10 == 0);
+			array.add(group);
+		}
+		json.add("groups", array);
+		return json.toString();
+	}
+
+	static String groupInfo(final int groups) {
+		final JsonArray array = new JsonArray();
+		for (int i = 1; i <= groups; i++) {
+			final JsonObject group = new JsonObject();
+			group.addProperty("id", i);
+			group.addProperty("name", "Group " + i);
+			group.addProperty("order", i);
+			group.addProperty("staff", i % 10 == 0);
+			array.add(group);
+		}
+		final JsonObject response = new JsonObject();
+		response.add("groups", array);
+		response.addProperty("error", false);
+		return response.toString();
+	}
+
+	static String listUsers(final int users) {
+		final Random random = new Random(users);
+		final StringBuilder builder = new StringBuilder(users * 80);
+		builder.append("{\"users\":[");
+		for (int i = 1; i <= users; i++) {
+			if (i != 1) {
+				builder.append(',');
+			}
+			builder.append("{\"id\":").append(i)
+					.append(",\"username\":\"user").append(i).append('"')
+					.append(",\"uuid\":\"").append(new UUID(random.nextLong(), random.nextLong()).toString().replace("-", "")).append("\"}");
+		}
+		builder.append("],\"error\":false}");
+		return builder.toString();
+	}
+
+	static JsonObject serverInfo(final int players) {
+		final Random random = new Random(players);
+		final JsonObject playersJson = new JsonObject();
+		for (int i = 0; i < players; i++) {
+			final JsonObject player = new JsonObject();
+			player.addProperty("name", "player" + i);
+			final JsonArray groups = new JsonArray();
+			groups.add("default");
+			player.add("groups", groups);
+			playersJson.add(new UUID(random.nextLong(), random.nextLong()).toString(), player);
+		}
+		final JsonObject json = new JsonObject();
+		json.addProperty("server-id", 1);
+		json.addProperty("max-memory", 4096);
+		json.addProperty("free-memory", 1024);
+		json.add("players", playersJson);
+		return json;
+	}
+
+}
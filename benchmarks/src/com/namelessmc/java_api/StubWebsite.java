@@ -0,0 +1,111 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Minimal local NamelessMC website, answering API requests with canned responses.
+ */
+public class StubWebsite implements AutoCloseable {
+
+	static final String API_KEY = "benchmark";
+
+	static {
+		// Write responses immediately instead of waiting for delayed ACKs, must be set before the server is created
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Map<String, byte[]> responses = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+	private volatile long responseDelayMillis = 0;
+
+	public StubWebsite() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+		this.executor = Executors.newFixedThreadPool(64);
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/index.php", this::handle);
+		respond(Action.INFO, "{\"error\":false,\"nameless_version\":\"2.0.0-pr10\",\"modules\":[\"Core\",\"Forum\"],\"language\":\"EnglishUK\"}");
+		this.server.start();
+	}
+
+	public String getApiUrl() {
+		return "http://127.0.0.1:" + this.server.getAddress().getPort() + "/index.php?route=/api/v2/" + API_KEY;
+	}
+
+	public void respond(final Action action, final String json) {
+		respond(action, json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public void respond(final Action action, final byte[] json) {
+		this.responses.put(action.toString(), json);
+	}
+
+	/**
+	 * @return Number of requests received for this action
+	 */
+	public long getRequestCount(final Action action) {
+		final AtomicLong count = this.requestCounts.get(action.toString());
+		return count == null ? 0 : count.get();
+	}
+
+	/**
+	 * Wait before responding, to simulate a slow website
+	 */
+	public void setResponseDelay(final long millis) {
+		this.responseDelayMillis = millis;
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+
+		// route=/api/v2/KEY/action&param=value
+		final String query = exchange.getRequestURI().getRawQuery();
+		final String route = query.substring(query.indexOf(API_KEY) + API_KEY.length() + 1);
+		final int paramsStart = route.indexOf('&');
+		final String action = paramsStart == -1 ? route : route.substring(0, paramsStart);
+		this.requestCounts.computeIfAbsent(action, a -> new AtomicLong()).incrementAndGet();
+
+		if (this.responseDelayMillis > 0) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(this.responseDelayMillis);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		byte[] response = this.responses.get(action);
+		if (response == null) {
+			response = "{\"error\":true,\"code\":3}".getBytes(StandardCharsets.UTF_8);
+		}
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, response.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(response);
+		}
+	}
+
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.namelessmc.java_api.http2.Http2Transport;
+
+/**
+ * Compares transports under many concurrent requests to a single website. By default requests go to a
+ * local HTTP/1.1 stub. To measure HTTP/2 multiplexing, point the benchmark at a real website using
+ * {@code -p apiUrl=https://example.com/index.php?route=/api/v2/API_KEY}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(32)
+public class TransportBenchmark {
+
+	@Param({"url-connection", "pooled", "http2"})
+	public String transport;
+
+	/**
+	 * Empty to use a local stub website
+	 */
+	@Param({""})
+	public String apiUrl;
+
+	private StubWebsite website;
+	private PooledHttpTransport pooled;
+	private NamelessAPI api;
+
+	@Setup
+	public void setUp() throws IOException {
+		String url = this.apiUrl;
+		if (url.isEmpty()) {
+			this.website = new StubWebsite();
+			url = this.website.getApiUrl();
+		}
+
+		final HttpTransport httpTransport;
+		switch (this.transport) {
+			case "url-connection":
+				httpTransport = new UrlConnectionTransport();
+				break;
+			case "pooled":
+				this.pooled = PooledHttpTransport.builder().maxConnectionsPerHost(32).build();
+				httpTransport = this.pooled;
+				break;
+			case "http2":
+				httpTransport = new Http2Transport();
+				break;
+			default:
+				throw new IllegalArgumentException(this.transport);
+		}
+
+		this.api = NamelessAPI.builder().apiUrl(url).transport(httpTransport).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (this.pooled != null) {
+			this.pooled.close();
+		}
+		if (this.website != null) {
+			this.website.close();
+		}
+	}
+
+	@Benchmark
+	public Website info() throws NamelessException {
+		return this.api.getWebsite();
+	}
+
+}
@@ -0,0 +1,72 @@
+package com.namelessmc.java_api;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Decoding user information: UUID conversion, building the user snapshot (which sorts the groups), and
+ * reading groups from a loaded user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+
+	private final String websiteUuid = "b1e4e5a26ff3460e9e5f7b6c94fc4cb0";
+
+	@State(Scope.Benchmark)
+	public static class User {
+
+		@Param({"2", "20"})
+		public int groups;
+
+		private NamelessAPI api;
+		private JsonObject userInfo;
+		private NamelessUser user;
+
+		@Setup
+		public void setUp() throws NamelessException {
+			final String response = Responses.userInfo(this.groups);
+			this.api = CannedTransport.api(response);
+			this.userInfo = JsonParser.parseString(response).getAsJsonObject();
+			this.user = this.api.getUserLazy(5);
+			this.user.getGroups(); // load
+		}
+
+	}
+
+	@Benchmark
+	public UUID websiteUuidToJavaUuid() {
+		return NamelessAPI.websiteUuidToJavaUuid(this.websiteUuid);
+	}
+
+	@Benchmark
+	public Object decodeUserInfo(final User user) {
+		return new UserSnapshot(user.userInfo, user.api.getGroupRegistry());
+	}
+
+	@Benchmark
+	public List<Group> getGroups(final User user) throws NamelessException {
+		return user.user.getGroups();
+	}
+
+}
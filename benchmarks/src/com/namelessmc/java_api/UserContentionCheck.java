@@ -0,0 +1,159 @@
+package com.namelessmc.java_api;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Stress test for a {@link NamelessUser} shared between many threads, against the local stub website. Not a
+ * JMH benchmark, run it using {@code java -cp benchmarks/target/benchmarks.jar com.namelessmc.java_api.UserContentionCheck}.
+ * Exits with status 1 if a check fails.
+ *
+ * <ul>
+ *     <li>Phases: the cache is invalidated and the website response changed, then all threads read the user
+ *     at once. Each phase must send exactly one userInfo request, and every thread must see that phase's data.</li>
+ *     <li>Races: readers read the user continuously while another thread keeps invalidating the cache. Reads
+ *     must not fail or return data of another user.</li>
+ * </ul>
+ *
+ * Arguments (optional): threads, phases, race iterations.
+ */
+public class UserContentionCheck {
+
+	public static void main(final String[] args) throws Exception {
+		final int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		final int phases = args.length > 1 ? Integer.parseInt(args[1]) : 300;
+		final int raceIterations = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+		boolean passed;
+		try (StubWebsite website = new StubWebsite()) {
+			// Keep the request in progress long enough for all threads to pile up behind it
+			website.setResponseDelay(2);
+			final NamelessAPI api = NamelessAPI.builder().apiUrl(website.getApiUrl()).build();
+			passed = checkPhases(website, api, threads, phases);
+			passed &= checkRaces(website, api, threads / 4, raceIterations);
+		}
+
+		System.out.println(passed ? "PASSED" : "FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+
+	private static String userInfo(final int phase) {
+		return Responses.userInfo().replace("\"displayname\":\"Derkades\"", "\"displayname\":\"Phase " + phase + "\"");
+	}
+
+	private static boolean checkPhases(final StubWebsite website, final NamelessAPI api, final int threads,
+			final int phases) throws Exception {
+		final NamelessUser user = api.getUserLazy(5);
+		final CyclicBarrier start = new CyclicBarrier(threads + 1);
+		final CyclicBarrier done = new CyclicBarrier(threads + 1);
+		final String[] seen = new String[threads];
+		final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+		final Thread[] workers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			workers[t] = new Thread(() -> {
+				for (int phase = 0; phase < phases; phase++) {
+					try {
+						start.await();
+						try {
+							// Different getters, all loading through the same cache
+							switch (thread % 4) {
+								case 0: user.getGroups(); break;
+								case 1: user.isBanned(); break;
+								case 2: user.getVerificationInfo(); break;
+								default: break;
+							}
+							seen[thread] = user.getDisplayName();
+						} catch (final NamelessException | RuntimeException e) {
+							errors.add(e);
+							seen[thread] = null;
+						}
+						done.await();
+					} catch (final Exception e) {
+						errors.add(e);
+						return;
+					}
+				}
+			}, "Contention-" + t);
+			workers[t].start();
+		}
+
+		final long collapsedBefore = api.getRequestHandler().getCollapsedRequests();
+		int failedPhases = 0;
+		for (int phase = 0; phase < phases; phase++) {
+			website.respond(Action.USER_INFO, userInfo(phase));
+			user.invalidateCache();
+			final long requestsBefore = website.getRequestCount(Action.USER_INFO);
+			start.await(30, TimeUnit.SECONDS);
+			done.await(30, TimeUnit.SECONDS);
+			final long requests = website.getRequestCount(Action.USER_INFO) - requestsBefore;
+
+			final String expected = "Phase " + phase;
+			int inconsistent = 0;
+			for (final String value : seen) {
+				if (!expected.equals(value)) {
+					inconsistent++;
+				}
+			}
+			if (requests != 1 || inconsistent != 0) {
+				failedPhases++;
+				System.out.printf("Phase %s: %s requests, %s threads saw other data%n", phase, requests, inconsistent);
+			}
+		}
+		for (final Thread worker : workers) {
+			worker.join();
+		}
+		// Duplicate loads would be hidden if RequestHandler coalesced them into one request
+		final long collapsed = api.getRequestHandler().getCollapsedRequests() - collapsedBefore;
+
+		System.out.printf("Phases: %s threads, %s phases, %s failed, %s collapsed requests, %s errors%n",
+				threads, phases, failedPhases, collapsed, errors.size());
+		errors.stream().limit(5).forEach(Throwable::printStackTrace);
+		return failedPhases == 0 && collapsed == 0 && errors.isEmpty();
+	}
+
+	private static boolean checkRaces(final StubWebsite website, final NamelessAPI api, final int readers,
+			final int iterations) throws Exception {
+		website.respond(Action.USER_INFO, Responses.userInfo());
+		final NamelessUser user = api.getUserLazy(5);
+		final AtomicBoolean stop = new AtomicBoolean();
+		final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+		final Thread[] threads = new Thread[readers];
+		for (int t = 0; t < readers; t++) {
+			threads[t] = new Thread(() -> {
+				while (!stop.get()) {
+					try {
+						if (user.getId() != 5 || !"Derkades".equals(user.getUsername())
+								|| user.getGroups().size() != 2 || !user.getDiscordId().isPresent()) {
+							errors.add(new IllegalStateException("Read inconsistent user data"));
+						}
+					} catch (final NamelessException | RuntimeException e) {
+						errors.add(e);
+					}
+				}
+			}, "Race-" + t);
+			threads[t].start();
+		}
+
+		for (int i = 0; i < iterations; i++) {
+			user.invalidateCache();
+			user.getDisplayName();
+		}
+		stop.set(true);
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		System.out.printf("Races: %s readers, %s invalidations, %s errors%n", readers, iterations, errors.size());
+		errors.stream().limit(5).forEach(Throwable::printStackTrace);
+		return errors.isEmpty();
+	}
+
+}
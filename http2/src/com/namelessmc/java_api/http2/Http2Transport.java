@@ -0,0 +1,111 @@
+package com.namelessmc.java_api.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+import com.namelessmc.java_api.HttpTransport;
+
+/**
+ * Transport using the Java 11 {@link HttpClient}. Websites that support HTTP/2 receive all concurrent
+ * requests as streams multiplexed over a single TLS connection, so a slow request does not hold up
+ * the requests behind it. Websites that only support HTTP/1.1 are still supported.
+ */
+public class Http2Transport implements HttpTransport {
+
+	private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+	private final HttpClient client;
+	private final Duration requestTimeout;
+
+	public Http2Transport() {
+		this(HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(DEFAULT_TIMEOUT)
+				.build(),
+				DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param client         HTTP client to send requests with, for example configured with a custom executor or proxy
+	 * @param requestTimeout maximum time to wait for response headers
+	 */
+	public Http2Transport(final HttpClient client, final Duration requestTimeout) {
+		this.client = Objects.requireNonNull(client, "HTTP client is null");
+		this.requestTimeout = Objects.requireNonNull(requestTimeout, "Request timeout is null");
+	}
+
+	public HttpClient getClient() {
+		return this.client;
+	}
+
+	@Override
+	public Response send(final Request request) throws IOException {
+		final HttpRequest.Builder builder;
+		try {
+			builder = HttpRequest.newBuilder(request.getUrl().toURI());
+		} catch (final URISyntaxException e) {
+			throw new IOException("Invalid request URL: " + request.getUrl(), e);
+		}
+
+		builder.timeout(this.requestTimeout);
+
+		for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			builder.header(header.getKey(), header.getValue());
+		}
+
+		final byte[] body = request.getBody();
+		if (body != null) {
+			builder.method(request.getMethod().name(), BodyPublishers.ofByteArray(body));
+		} else {
+			builder.GET();
+		}
+
+		try {
+			return new Http2Response(this.client.send(builder.build(), BodyHandlers.ofInputStream()));
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for response");
+		}
+	}
+
+	private static class Http2Response implements Response {
+
+		private final HttpResponse<InputStream> response;
+
+		private Http2Response(final HttpResponse<InputStream> response) {
+			this.response = response;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return this.response.statusCode();
+		}
+
+		@Override
+		public String getHeader(final String name) {
+			return this.response.headers().firstValue(name).orElse(null);
+		}
+
+		@Override
+		public InputStream getBody() {
+			return this.response.body();
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.response.body().close();
+		}
+
+	}
+
+}
@@ -0,0 +1,204 @@
+package com.namelessmc.java_api;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Non-blocking view of {@link NamelessAPI}. Every method runs the equivalent blocking method
+ * on the executor configured using {@link NamelessApiBuilder#executor(Executor)} and returns
+ * a future. Checked exceptions like {@link NamelessException} complete the future exceptionally.
+ */
+public final class AsyncNamelessAPI {
+
+	private final NamelessAPI api;
+	private final Executor executor;
+
+	AsyncNamelessAPI(final NamelessAPI api, final Executor executor) {
+		this.api = api;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return Blocking API instance this async view belongs to
+	 */
+	public NamelessAPI sync() {
+		return this.api;
+	}
+
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	public CompletableFuture<Void> checkWebAPIConnection() {
+		return run(this.executor, this.api::checkWebAPIConnection);
+	}
+
+	public CompletableFuture<List<Announcement>> getAnnouncements() {
+		return supply(this.executor, this.api::getAnnouncements);
+	}
+
+	public CompletableFuture<List<Announcement>> getAnnouncements(final NamelessUser user) {
+		return supply(this.executor, () -> this.api.getAnnouncements(user));
+	}
+
+	public CompletableFuture<Void> submitServerInfo(final JsonObject jsonData) {
+		return run(this.executor, () -> this.api.submitServerInfo(jsonData));
+	}
+
+	public CompletableFuture<Void> submitIngameRanks(final int serverId, final Map<UUID, List<String>> ranks) {
+		return run(this.executor, () -> this.api.submitIngameRanks(serverId, ranks));
+	}
+
+	public CompletableFuture<Website> getWebsite() {
+		return supply(this.executor, this.api::getWebsite);
+	}
+
+	public CompletableFuture<List<NamelessUser>> getRegisteredUsers(final UserFilter<?>... filters) {
+		return supply(this.executor, () -> this.api.getRegisteredUsers(filters));
+	}
+
+	public CompletableFuture<UserDirectory> getUserDirectory(final UserFilter<?>... filters) {
+		return supply(this.executor, () -> this.api.getUserDirectory(filters));
+	}
+
+	public CompletableFuture<Optional<NamelessUser>> getUser(final int id) {
+		return supply(this.executor, () -> this.api.getUser(id));
+	}
+
+	public CompletableFuture<Optional<NamelessUser>> getUser(final String username) {
+		return supply(this.executor, () -> this.api.getUser(username));
+	}
+
+	public CompletableFuture<Optional<NamelessUser>> getUser(final UUID uuid) {
+		return supply(this.executor, () -> this.api.getUser(uuid));
+	}
+
+	public CompletableFuture<Optional<NamelessUser>> getUserByDiscordId(final long discordId) {
+		return supply(this.executor, () -> this.api.getUserByDiscordId(discordId));
+	}
+
+	public CompletableFuture<Map<Integer, Optional<NamelessUser>>> getUsersById(final Collection<Integer> ids) {
+		return supply(this.executor, () -> this.api.getUsersById(ids));
+	}
+
+	public CompletableFuture<Map<String, Optional<NamelessUser>>> getUsersByUsername(final Collection<String> usernames) {
+		return supply(this.executor, () -> this.api.getUsersByUsername(usernames));
+	}
+
+	public CompletableFuture<Map<UUID, Optional<NamelessUser>>> getUsersByUuid(final Collection<UUID> uuids) {
+		return supply(this.executor, () -> this.api.getUsersByUuid(uuids));
+	}
+
+	public CompletableFuture<Map<Long, Optional<NamelessUser>>> getUsersByDiscordId(final Collection<Long> discordIds) {
+		return supply(this.executor, () -> this.api.getUsersByDiscordId(discordIds));
+	}
+
+	public CompletableFuture<Optional<Group>> getGroup(final int id) {
+		return supply(this.executor, () -> this.api.getGroup(id));
+	}
+
+	public CompletableFuture<List<Group>> getGroup(final String name) {
+		return supply(this.executor, () -> this.api.getGroup(name));
+	}
+
+	public CompletableFuture<List<Group>> getAllGroups() {
+		return supply(this.executor, this.api::getAllGroups);
+	}
+
+	public CompletableFuture<int[]> getAllGroupIds() {
+		return supply(this.executor, this.api::getAllGroupIds);
+	}
+
+	/**
+	 * @see NamelessAPI#registerUser(String, String, Optional)
+	 */
+	public CompletableFuture<Optional<String>> registerUser(final String username, final String email, final Optional<UUID> uuid) {
+		return supply(this.executor, () -> this.api.registerUser(username, email, uuid));
+	}
+
+	public CompletableFuture<Optional<String>> registerUser(final String username, final String email) {
+		return supply(this.executor, () -> this.api.registerUser(username, email));
+	}
+
+	public CompletableFuture<Void> verifyDiscord(final String verificationToken, final long discordUserId, final String discordUsername) {
+		return run(this.executor, () -> this.api.verifyDiscord(verificationToken, discordUserId, discordUsername));
+	}
+
+	public CompletableFuture<Void> setDiscordBotUrl(final URL url) {
+		return run(this.executor, () -> this.api.setDiscordBotUrl(url));
+	}
+
+	public CompletableFuture<Void> setDiscordGuildId(final long guildId) {
+		return run(this.executor, () -> this.api.setDiscordGuildId(guildId));
+	}
+
+	public CompletableFuture<Void> setDiscordBotUser(final String username, final long userId) {
+		return run(this.executor, () -> this.api.setDiscordBotUser(username, userId));
+	}
+
+	public CompletableFuture<Void> setDiscordBotSettings(final URL url, final long guildId, final String username, final long userId) {
+		return run(this.executor, () -> this.api.setDiscordBotSettings(url, guildId, username, userId));
+	}
+
+	public CompletableFuture<Void> submitDiscordRoleList(final Map<Long, String> discordRoles) {
+		return run(this.executor, () -> this.api.submitDiscordRoleList(discordRoles));
+	}
+
+	public CompletableFuture<Void> updateDiscordUsername(final long discordUserId, final String discordUsername) {
+		return run(this.executor, () -> this.api.updateDiscordUsername(discordUserId, discordUsername));
+	}
+
+	public CompletableFuture<Void> updateDiscordUsernames(final long[] discordUserIds, final String[] discordUsernames) {
+		return run(this.executor, () -> this.api.updateDiscordUsernames(discordUserIds, discordUsernames));
+	}
+
+	static <T> CompletableFuture<T> supply(final Executor executor, final ApiCallable<T> callable) {
+		Objects.requireNonNull(callable, "Callable is null");
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					future.complete(callable.call());
+				} catch (final Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		} catch (final RuntimeException e) {
+			// Executor rejected the task, for example because it has been shut down
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	static CompletableFuture<Void> run(final Executor executor, final ApiRunnable runnable) {
+		Objects.requireNonNull(runnable, "Runnable is null");
+		return supply(executor, () -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	@FunctionalInterface
+	interface ApiCallable<T> {
+
+		T call() throws Exception;
+
+	}
+
+	@FunctionalInterface
+	interface ApiRunnable {
+
+		void run() throws Exception;
+
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.namelessmc.java_api;
+
+import static com.namelessmc.java_api.AsyncNamelessAPI.run;
+import static com.namelessmc.java_api.AsyncNamelessAPI.supply;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking view of {@link NamelessUser}, see {@link AsyncNamelessAPI}.
+ */
+public final class AsyncNamelessUser {
+
+	private final NamelessUser user;
+	private final Executor executor;
+
+	AsyncNamelessUser(final NamelessUser user, final Executor executor) {
+		this.user = user;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return Blocking user instance this async view belongs to
+	 */
+	public NamelessUser sync() {
+		return this.user;
+	}
+
+	public CompletableFuture<Integer> getId() {
+		return supply(this.executor, this.user::getId);
+	}
+
+	public CompletableFuture<String> getUsername() {
+		return supply(this.executor, this.user::getUsername);
+	}
+
+	public CompletableFuture<Optional<UUID>> getUniqueId() {
+		return supply(this.executor, this.user::getUniqueId);
+	}
+
+	public CompletableFuture<Optional<Long>> getDiscordId() {
+		return supply(this.executor, this.user::getDiscordId);
+	}
+
+	public CompletableFuture<Boolean> exists() {
+		return supply(this.executor, this.user::exists);
+	}
+
+	public CompletableFuture<String> getDisplayName() {
+		return supply(this.executor, this.user::getDisplayName);
+	}
+
+	public CompletableFuture<Date> getRegisteredDate() {
+		return supply(this.executor, this.user::getRegisteredDate);
+	}
+
+	public CompletableFuture<Date> getLastOnline() {
+		return supply(this.executor, this.user::getLastOnline);
+	}
+
+	public CompletableFuture<Boolean> isBanned() {
+		return supply(this.executor, this.user::isBanned);
+	}
+
+	public CompletableFuture<Boolean> isVerified() {
+		return supply(this.executor, this.user::isVerified);
+	}
+
+	public CompletableFuture<String> getLangage() {
+		return supply(this.executor, this.user::getLangage);
+	}
+
+	public CompletableFuture<VerificationInfo> getVerificationInfo() {
+		return supply(this.executor, this.user::getVerificationInfo);
+	}
+
+	public CompletableFuture<Boolean> isStaff() {
+		return supply(this.executor, this.user::isStaff);
+	}
+
+	public CompletableFuture<List<Group>> getGroups() {
+		return supply(this.executor, this.user::getGroups);
+	}
+
+	public CompletableFuture<Optional<Group>> getPrimaryGroup() {
+		return supply(this.executor, this.user::getPrimaryGroup);
+	}
+
+	public CompletableFuture<Void> addGroups(final Group... groups) {
+		return run(this.executor, () -> this.user.addGroups(groups));
+	}
+
+	public CompletableFuture<Void> removeGroups(final Group... groups) {
+		return run(this.executor, () -> this.user.removeGroups(groups));
+	}
+
+	public CompletableFuture<Integer> getNotificationCount() {
+		return supply(this.executor, this.user::getNotificationCount);
+	}
+
+	public CompletableFuture<List<Notification>> getNotifications() {
+		return supply(this.executor, this.user::getNotifications);
+	}
+
+	/**
+	 * @see NamelessUser#createReport(NamelessUser, String)
+	 */
+	public CompletableFuture<Void> createReport(final NamelessUser user, final String reason) {
+		return run(this.executor, () -> this.user.createReport(user, reason));
+	}
+
+	/**
+	 * @see NamelessUser#verifyMinecraft(String)
+	 */
+	public CompletableFuture<Void> verifyMinecraft(final String code) {
+		return run(this.executor, () -> this.user.verifyMinecraft(code));
+	}
+
+	public CompletableFuture<long[]> getDiscordRoles() {
+		return supply(this.executor, this.user::getDiscordRoles);
+	}
+
+	public CompletableFuture<Void> setDiscordRoles(final long[] roleIds) {
+		return run(this.executor, () -> this.user.setDiscordRoles(roleIds));
+	}
+
+	public CompletableFuture<Void> addDiscordRoles(final long... roleIds) {
+		return run(this.executor, () -> this.user.addDiscordRoles(roleIds));
+	}
+
+	public CompletableFuture<Void> removeDiscordRoles(final long... roleIds) {
+		return run(this.executor, () -> this.user.removeDiscordRoles(roleIds));
+	}
+
+}
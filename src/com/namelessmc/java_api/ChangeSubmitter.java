@@ -0,0 +1,405 @@
+package com.namelessmc.java_api;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.lang3.Validate;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Submits data that is sent repeatedly but rarely changes, like server info or the Discord role list, only
+ * when it changed. Call {@link #submit(Object)} whenever the data may have changed; it returns immediately
+ * and the data is sent on a background thread.
+ *
+ * <ul>
+ *     <li>Data equal to the data last sent is not sent again. Data is compared using a 64-bit hash; JSON objects
+ *     are hashed with their keys in sorted order, so key order does not matter.</li>
+ *     <li>Data is sent at most once per minimum interval. Data submitted while waiting replaces earlier data,
+ *     so only the latest data is sent.</li>
+ *     <li>If a heartbeat interval is configured, the last data is sent again when nothing has been sent for
+ *     that long, even if it did not change.</li>
+ *     <li>If sending fails, the data is sent again after the minimum interval, but no sooner than after one second.</li>
+ * </ul>
+ *
+ * <p>Create a submitter using {@link Builder#serverInfo(NamelessAPI)} or {@link Builder#discordRoleList(NamelessAPI)}.</p>
+ *
+ * @param <T> type of the submitted data
+ */
+public final class ChangeSubmitter<T> implements AutoCloseable {
+
+	private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	/**
+	 * Minimum delay before sending again after a failure, so a minimum interval of 0 doesn't retry in a busy loop
+	 */
+	private static final long MIN_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final UnaryOperator<T> copy;
+	private final ToLongFunction<T> fingerprint;
+	private final Sender<T> sender;
+	private final long minIntervalNanos;
+	private final long retryDelayNanos;
+	private final long heartbeatIntervalNanos; // 0 if disabled
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private final Object lock = new Object();
+	// Guarded by lock
+	private T pending = null;
+	private ScheduledFuture<?> sendTask = null;
+	private long lastAttempt;
+	private boolean closed = false;
+
+	// Only used on the scheduler thread
+	private T lastSent = null;
+	private long lastSentFingerprint;
+	private volatile long lastSentTime;
+
+	private volatile NamelessException lastFailure = null;
+	private volatile long submitted = 0;
+	private volatile long sent = 0;
+	private volatile long unchanged = 0;
+	private volatile long failed = 0;
+
+	private ChangeSubmitter(final Builder builder, final UnaryOperator<T> copy, final ToLongFunction<T> fingerprint,
+			final Sender<T> sender, final String threadName) {
+		this.copy = copy;
+		this.fingerprint = fingerprint;
+		this.sender = sender;
+		this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.minInterval);
+		this.retryDelayNanos = Math.max(this.minIntervalNanos, MIN_RETRY_DELAY_NANOS);
+		this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.heartbeatInterval);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		final long now = System.nanoTime();
+		this.lastAttempt = now - this.minIntervalNanos;
+		this.lastSentTime = now;
+
+		if (this.heartbeatIntervalNanos > 0) {
+			final long check = Math.max(TimeUnit.MILLISECONDS.toNanos(10), Math.min(TimeUnit.SECONDS.toNanos(1), this.heartbeatIntervalNanos / 10));
+			this.scheduler.scheduleWithFixedDelay(this::heartbeat, check, check, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Send data if it is different from the data last sent. The data is copied, so it may be modified after
+	 * this method returns.
+	 *
+	 * @throws IllegalStateException if the submitter has been closed
+	 */
+	public void submit(final T data) {
+		Objects.requireNonNull(data, "Data is null");
+		final T copy = this.copy.apply(data);
+		synchronized (this.lock) {
+			if (this.closed) {
+				throw new IllegalStateException("Submitter is closed");
+			}
+			this.submitted++;
+			this.pending = copy;
+			if (this.sendTask == null) {
+				final long delay = Math.max(0, this.lastAttempt + this.minIntervalNanos - System.nanoTime());
+				this.sendTask = this.scheduler.schedule(this::send, delay, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	private void heartbeat() {
+		synchronized (this.lock) {
+			if (this.sendTask == null && this.lastSent != null
+					&& System.nanoTime() - this.lastSentTime >= this.heartbeatIntervalNanos) {
+				this.pending = this.lastSent;
+				this.sendTask = this.scheduler.schedule(this::send, 0, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Send pending data. Only runs on the scheduler thread.
+	 */
+	private void send() {
+		final T data;
+		synchronized (this.lock) {
+			data = this.pending;
+			this.pending = null;
+			if (this.sendTask != null) {
+				// Sending early because of flush()
+				this.sendTask.cancel(false);
+				this.sendTask = null;
+			}
+			if (data == null) {
+				return;
+			}
+			this.lastAttempt = System.nanoTime();
+		}
+
+		final long fingerprint = this.fingerprint.applyAsLong(data);
+		final boolean heartbeatDue = this.heartbeatIntervalNanos > 0 && System.nanoTime() - this.lastSentTime >= this.heartbeatIntervalNanos;
+		if (this.lastSent != null && fingerprint == this.lastSentFingerprint && !heartbeatDue) {
+			this.unchanged++;
+			return;
+		}
+
+		try {
+			this.sender.send(data);
+			this.lastSent = data;
+			this.lastSentFingerprint = fingerprint;
+			this.lastSentTime = System.nanoTime();
+			this.sent++;
+		} catch (final NamelessException | RuntimeException e) {
+			this.failed++;
+			this.lastFailure = e instanceof NamelessException ? (NamelessException) e : new NamelessException(e);
+			synchronized (this.lock) {
+				// Try again later, unless newer data has been submitted in the meantime
+				if (this.pending == null) {
+					this.pending = data;
+				}
+				if (this.sendTask == null && !this.closed) {
+					this.sendTask = this.scheduler.schedule(this::send, this.retryDelayNanos, TimeUnit.NANOSECONDS);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Send pending data now, without waiting for the minimum interval
+	 *
+	 * @return Future completed when pending data has been sent or found unchanged. It does not complete
+	 * exceptionally, see {@link #getLastFailure()}.
+	 */
+	public CompletableFuture<Void> flush() {
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			this.scheduler.execute(() -> {
+				try {
+					send();
+				} finally {
+					future.complete(null);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			future.complete(null);
+		}
+		return future;
+	}
+
+	/**
+	 * Stop accepting data, send pending data and wait until it has been sent
+	 */
+	@Override
+	public void close() {
+		synchronized (this.lock) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+		}
+		final CompletableFuture<Void> flushed = flush();
+		this.scheduler.shutdown();
+		flushed.join();
+	}
+
+	/**
+	 * @return Exception thrown by the last failed send, or empty if sending never failed
+	 */
+	public Optional<NamelessException> getLastFailure() {
+		return Optional.ofNullable(this.lastFailure);
+	}
+
+	public SubmitterStatistics getStatistics() {
+		return new SubmitterStatistics(this.submitted, this.sent, this.unchanged, this.failed);
+	}
+
+	/**
+	 * Hash JSON without serializing it. Object keys are hashed in sorted order, so objects with the same keys
+	 * and values have the same hash regardless of key order.
+	 */
+	static long fingerprint(final JsonElement json) {
+		return fingerprint(FNV_OFFSET, json);
+	}
+
+	private static long fingerprint(long hash, final JsonElement json) {
+		if (json == null || json.isJsonNull()) {
+			return hash(hash, 'n');
+		} else if (json.isJsonPrimitive()) {
+			final JsonPrimitive primitive = json.getAsJsonPrimitive();
+			hash = hash(hash, primitive.isString() ? 's' : primitive.isBoolean() ? 'b' : 'd');
+			return hash(hash, primitive.getAsString());
+		} else if (json.isJsonArray()) {
+			hash = hash(hash, '[');
+			for (final JsonElement element : json.getAsJsonArray()) {
+				hash = fingerprint(hash, element);
+			}
+			return hash(hash, ']');
+		} else {
+			final JsonObject object = json.getAsJsonObject();
+			final String[] keys = object.keySet().toArray(new String[0]);
+			Arrays.sort(keys);
+			hash = hash(hash, '{');
+			for (final String key : keys) {
+				hash = hash(hash, key);
+				hash = fingerprint(hash, object.get(key));
+			}
+			return hash(hash, '}');
+		}
+	}
+
+	/**
+	 * Hash a Discord role list, in order of role id
+	 */
+	static long fingerprint(final Map<Long, String> roles) {
+		final long[] ids = new long[roles.size()];
+		int i = 0;
+		for (final Long id : roles.keySet()) {
+			ids[i++] = id;
+		}
+		Arrays.sort(ids);
+		long hash = FNV_OFFSET;
+		for (final long id : ids) {
+			for (int shift = 0; shift < 64; shift += 16) {
+				hash = hash(hash, (char) (id >>> shift));
+			}
+			hash = hash(hash, roles.get(id));
+		}
+		return hash;
+	}
+
+	private static long hash(final long hash, final char c) {
+		return (hash ^ c) * FNV_PRIME;
+	}
+
+	private static long hash(long hash, final String string) {
+		if (string == null) {
+			return hash(hash, 'n');
+		}
+		for (int i = 0; i < string.length(); i++) {
+			hash = hash(hash, string.charAt(i));
+		}
+		// Length, so adjacent strings can't be split differently to get the same hash
+		return hash(hash(hash, (char) string.length()), (char) (string.length() >>> 16));
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	@FunctionalInterface
+	private interface Sender<T> {
+
+		void send(T data) throws NamelessException;
+
+	}
+
+	public static class SubmitterStatistics {
+
+		private final long submitted;
+		private final long sent;
+		private final long unchanged;
+		private final long failed;
+
+		SubmitterStatistics(final long submitted, final long sent, final long unchanged, final long failed) {
+			this.submitted = submitted;
+			this.sent = sent;
+			this.unchanged = unchanged;
+			this.failed = failed;
+		}
+
+		/**
+		 * @return Number of times data was submitted
+		 */
+		public long getSubmitted() {
+			return this.submitted;
+		}
+
+		/**
+		 * @return Number of successful requests, including heartbeats
+		 */
+		public long getSent() {
+			return this.sent;
+		}
+
+		/**
+		 * @return Number of times data was not sent because it was unchanged
+		 */
+		public long getUnchanged() {
+			return this.unchanged;
+		}
+
+		/**
+		 * @return Number of failed requests
+		 */
+		public long getFailed() {
+			return this.failed;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("SubmitterStatistics[submitted=%s, sent=%s, unchanged=%s, failed=%s]",
+					this.submitted, this.sent, this.unchanged, this.failed);
+		}
+
+	}
+
+	public static class Builder {
+
+		private long minInterval = 5000;
+		private long heartbeatInterval = 0;
+
+		Builder() {
+		}
+
+		/**
+		 * @param minInterval minimum time in milliseconds between requests. Default 5 seconds.
+		 */
+		public Builder minInterval(final long minInterval) {
+			Validate.isTrue(minInterval >= 0, "Minimum interval must not be negative");
+			this.minInterval = minInterval;
+			return this;
+		}
+
+		/**
+		 * @param heartbeatInterval time in milliseconds after which unchanged data is sent again, 0 to never send
+		 *                          unchanged data. Default 0.
+		 */
+		public Builder heartbeatInterval(final long heartbeatInterval) {
+			Validate.isTrue(heartbeatInterval >= 0, "Heartbeat interval must not be negative");
+			this.heartbeatInterval = heartbeatInterval;
+			return this;
+		}
+
+		/**
+		 * @return Submitter for {@link NamelessAPI#submitServerInfo(JsonObject)}
+		 */
+		public ChangeSubmitter<JsonObject> serverInfo(final NamelessAPI api) {
+			Objects.requireNonNull(api, "API is null");
+			return new ChangeSubmitter<>(this, JsonObject::deepCopy, ChangeSubmitter::fingerprint,
+					api::submitServerInfo, "Nameless-ServerInfoSubmitter");
+		}
+
+		/**
+		 * @return Submitter for {@link NamelessAPI#submitDiscordRoleList(Map)}
+		 */
+		public ChangeSubmitter<Map<Long, String>> discordRoleList(final NamelessAPI api) {
+			Objects.requireNonNull(api, "API is null");
+			return new ChangeSubmitter<>(this, LinkedHashMap::new, ChangeSubmitter::fingerprint,
+					api::submitDiscordRoleList, "Nameless-DiscordRoleListSubmitter");
+		}
+
+	}
+
+}
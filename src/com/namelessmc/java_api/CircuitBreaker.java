@@ -0,0 +1,223 @@
+package com.namelessmc.java_api;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Stops sending requests while the website appears to be down, configured using
+ * {@link NamelessApiBuilder#circuitBreaker(CircuitBreaker)}. Requests fail with {@link CircuitOpenException}
+ * right away, instead of each waiting for a connection timeout.
+ *
+ * <p>The circuit opens after a number of consecutive failures: requests without response (connection error
+ * or timeout), or with a 5xx status code. After the open duration, a limited number of trial requests are
+ * let through (half open). If they all succeed the circuit closes again, if one fails it opens again.</p>
+ */
+public final class CircuitBreaker {
+
+	public enum State {
+
+		/**
+		 * Requests are sent normally
+		 */
+		CLOSED,
+		/**
+		 * Requests are rejected
+		 */
+		OPEN,
+		/**
+		 * Trial requests are sent to find out if the website has recovered, other requests are rejected
+		 */
+		HALF_OPEN,
+
+	}
+
+	private final int failureThreshold;
+	private final long openDurationNanos;
+	private final int halfOpenProbes;
+
+	// Guarded by this object
+	private State state = State.CLOSED;
+	private int consecutiveFailures = 0;
+	private long openedAt;
+	private int probesStarted;
+	private int probesSucceeded;
+	private long timesOpened = 0;
+	private long rejected = 0;
+
+	private CircuitBreaker(final Builder builder) {
+		this.failureThreshold = builder.failureThreshold;
+		this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(builder.openDuration);
+		this.halfOpenProbes = builder.halfOpenProbes;
+	}
+
+	/**
+	 * Check if a request may be sent. If it may, the outcome must be reported using
+	 * {@link #record(boolean, boolean)} or {@link #cancel(boolean)}.
+	 *
+	 * @return True if the request is a half open trial request
+	 * @throws CircuitOpenException if the request may not be sent
+	 */
+	synchronized boolean acquire() throws CircuitOpenException {
+		if (this.state == State.OPEN && System.nanoTime() - this.openedAt >= this.openDurationNanos) {
+			this.state = State.HALF_OPEN;
+			this.probesStarted = 0;
+			this.probesSucceeded = 0;
+		}
+
+		if (this.state == State.CLOSED) {
+			return false;
+		}
+
+		if (this.state == State.HALF_OPEN && this.probesStarted < this.halfOpenProbes) {
+			this.probesStarted++;
+			return true;
+		}
+
+		this.rejected++;
+		throw new CircuitOpenException("Not sending request, website is unavailable (" + this.consecutiveFailures + " consecutive failures)");
+	}
+
+	/**
+	 * @param probe   value returned by {@link #acquire()}
+	 * @param success false if no response was received or the response had a 5xx status code
+	 */
+	synchronized void record(final boolean probe, final boolean success) {
+		if (success) {
+			this.consecutiveFailures = 0;
+			if (probe && this.state == State.HALF_OPEN && ++this.probesSucceeded >= this.halfOpenProbes) {
+				this.state = State.CLOSED;
+			}
+		} else {
+			this.consecutiveFailures++;
+			if (probe && this.state == State.HALF_OPEN
+					|| this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold) {
+				this.state = State.OPEN;
+				this.openedAt = System.nanoTime();
+				this.timesOpened++;
+			}
+		}
+	}
+
+	/**
+	 * Report that a request allowed by {@link #acquire()} was not sent after all
+	 */
+	synchronized void cancel(final boolean probe) {
+		if (probe && this.state == State.HALF_OPEN) {
+			this.probesStarted--;
+		}
+	}
+
+	/**
+	 * @return Current state. An open circuit is reported as open until the next request after the open duration.
+	 */
+	public synchronized State getState() {
+		return this.state;
+	}
+
+	/**
+	 * Close the circuit, for example after the website administrator reports that the website is back up
+	 */
+	public synchronized void reset() {
+		this.state = State.CLOSED;
+		this.consecutiveFailures = 0;
+	}
+
+	public synchronized BreakerStatistics getStatistics() {
+		return new BreakerStatistics(this.state, this.consecutiveFailures, this.timesOpened, this.rejected);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class BreakerStatistics {
+
+		private final State state;
+		private final int consecutiveFailures;
+		private final long timesOpened;
+		private final long rejected;
+
+		BreakerStatistics(final State state, final int consecutiveFailures, final long timesOpened, final long rejected) {
+			this.state = state;
+			this.consecutiveFailures = consecutiveFailures;
+			this.timesOpened = timesOpened;
+			this.rejected = rejected;
+		}
+
+		public State getState() {
+			return this.state;
+		}
+
+		/**
+		 * @return Number of failed requests since the last successful request
+		 */
+		public int getConsecutiveFailures() {
+			return this.consecutiveFailures;
+		}
+
+		/**
+		 * @return Number of times the circuit opened
+		 */
+		public long getTimesOpened() {
+			return this.timesOpened;
+		}
+
+		/**
+		 * @return Number of requests that failed with {@link CircuitOpenException}
+		 */
+		public long getRejected() {
+			return this.rejected;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("BreakerStatistics[state=%s, consecutiveFailures=%s, timesOpened=%s, rejected=%s]",
+					this.state, this.consecutiveFailures, this.timesOpened, this.rejected);
+		}
+
+	}
+
+	public static class Builder {
+
+		private int failureThreshold = 5;
+		private long openDuration = 30000;
+		private int halfOpenProbes = 1;
+
+		Builder() {
+		}
+
+		/**
+		 * @param failureThreshold number of consecutive failures after which the circuit opens. Default 5.
+		 */
+		public Builder failureThreshold(final int failureThreshold) {
+			Validate.isTrue(failureThreshold > 0, "Failure threshold must be positive");
+			this.failureThreshold = failureThreshold;
+			return this;
+		}
+
+		/**
+		 * @param openDuration time in milliseconds requests are rejected before trial requests are sent. Default 30 seconds.
+		 */
+		public Builder openDuration(final long openDuration) {
+			Validate.isTrue(openDuration >= 0, "Open duration must not be negative");
+			this.openDuration = openDuration;
+			return this;
+		}
+
+		/**
+		 * @param halfOpenProbes number of trial requests that must succeed to close the circuit. Default 1.
+		 */
+		public Builder halfOpenProbes(final int halfOpenProbes) {
+			Validate.isTrue(halfOpenProbes > 0, "Number of trial requests must be positive");
+			this.halfOpenProbes = halfOpenProbes;
+			return this;
+		}
+
+		public CircuitBreaker build() {
+			return new CircuitBreaker(this);
+		}
+
+	}
+
+}
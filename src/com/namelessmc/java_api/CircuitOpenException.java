@@ -0,0 +1,14 @@
+package com.namelessmc.java_api;
+
+/**
+ * Thrown when a request is not sent because the {@link CircuitBreaker} is open
+ */
+public class CircuitOpenException extends NamelessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CircuitOpenException(final String message) {
+		super(message);
+	}
+
+}
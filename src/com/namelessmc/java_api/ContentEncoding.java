@@ -0,0 +1,140 @@
+package com.namelessmc.java_api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP content encodings supported for responses and request bodies
+ */
+final class ContentEncoding {
+
+	/**
+	 * Value of the Accept-Encoding header sent with every request
+	 */
+	static final String ACCEPTED = "gzip, deflate";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ContentEncoding() {
+	}
+
+	/**
+	 * @param in              response body as received
+	 * @param contentEncoding value of the Content-Encoding header, may be null
+	 * @return Stream decompressing the response body while it is read
+	 * @throws IOException if the encoding is not supported, or the gzip header is invalid
+	 */
+	static InputStream decode(final InputStream in, final String contentEncoding) throws IOException {
+		if (contentEncoding == null) {
+			return in;
+		}
+		final String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+		if (encoding.isEmpty() || encoding.equals("identity")) {
+			return in;
+		}
+
+		final boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+		if (!gzip && !encoding.equals("deflate")) {
+			throw new IOException("Website sent response with unsupported Content-Encoding: " + contentEncoding);
+		}
+
+		// Some websites send an encoding header with an empty body, for example for errors
+		final PushbackInputStream pushback = new PushbackInputStream(in, 2);
+		final int first = pushback.read();
+		if (first == -1) {
+			return pushback;
+		}
+		final int second = pushback.read();
+		if (second != -1) {
+			pushback.unread(second);
+		}
+		pushback.unread(first);
+
+		if (gzip) {
+			return new GZIPInputStream(pushback, BUFFER_SIZE);
+		}
+
+		// "deflate" should be zlib wrapped, but some servers send raw deflate data
+		final boolean zlib = second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+		final Inflater inflater = new Inflater(!zlib);
+		return new InflaterInputStream(pushback, inflater, BUFFER_SIZE) {
+			private boolean closed = false;
+
+			@Override
+			public void close() throws IOException {
+				if (this.closed) {
+					return;
+				}
+				this.closed = true;
+				try {
+					super.close();
+				} finally {
+					// Not done by InflaterInputStream for an inflater passed to the constructor
+					inflater.end();
+				}
+			}
+		};
+	}
+
+	static byte[] gzip(final byte[] data) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+			gzip.write(data);
+		} catch (final IOException e) {
+			// Not thrown by ByteArrayOutputStream
+			throw new RuntimeException(e);
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * Counts bytes read, to know the size of a response before decompression
+	 */
+	static class CountingInputStream extends FilterInputStream {
+
+		private long count = 0;
+
+		CountingInputStream(final InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b != -1) {
+				this.count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+			final int read = super.read(buffer, offset, length);
+			if (read > 0) {
+				this.count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long skipped = super.skip(n);
+			this.count += skipped;
+			return skipped;
+		}
+
+		long getCount() {
+			return this.count;
+		}
+
+	}
+
+}
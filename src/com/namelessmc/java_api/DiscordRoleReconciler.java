@@ -0,0 +1,206 @@
+package com.namelessmc.java_api;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Keeps website Discord roles in sync with a Discord bot, sending only the roles that changed. Call
+ * {@link #reconcile(int, long[])} with the current roles of each member every sync cycle. Requests are only
+ * sent for users whose roles changed since the last call, so a sync of a large guild costs requests in
+ * proportion to the number of changes, not the number of members.
+ *
+ * <p>The last known roles of each user are kept as a sorted array. For a user without known roles, all roles
+ * are set using one {@code setDiscordRoles} request, or the known roles can be provided using
+ * {@link #setKnownRoles(int, long[])}, for example from {@link NamelessUser#getDiscordRoles()}. If a request
+ * fails, the roles of that user are forgotten and set completely by the next reconcile.</p>
+ *
+ * <p>Different users can be reconciled from multiple threads at the same time. Calls for the same user must
+ * not overlap.</p>
+ */
+public final class DiscordRoleReconciler {
+
+	private static final long[] NO_ROLES = new long[0];
+
+	private final RequestHandler requests;
+	private final Map<Integer, long[]> knownRoles = new ConcurrentHashMap<>();
+
+	private final AtomicLong unchanged = new AtomicLong();
+	private final AtomicLong updated = new AtomicLong();
+	private final AtomicLong requestsSent = new AtomicLong();
+
+	public DiscordRoleReconciler(final NamelessAPI api) {
+		this.requests = Objects.requireNonNull(api, "API is null").getRequestHandler();
+	}
+
+	/**
+	 * Make the website roles of a user equal to the given roles
+	 *
+	 * @param userId  website user id
+	 * @param roleIds current Discord role ids of this user, in any order
+	 * @return true if requests were sent, false if the roles were unchanged
+	 * @throws NamelessException if a request failed
+	 */
+	public boolean reconcile(final int userId, final long[] roleIds) throws NamelessException {
+		final long[] roles = toSet(roleIds);
+		final long[] known = this.knownRoles.get(userId);
+
+		if (known == null) {
+			send(userId, Action.SET_DISCORD_ROLES, roles);
+			this.knownRoles.put(userId, roles);
+			this.updated.incrementAndGet();
+			return true;
+		}
+
+		final long[] added = difference(roles, known);
+		final long[] removed = difference(known, roles);
+		if (added.length == 0 && removed.length == 0) {
+			this.unchanged.incrementAndGet();
+			return false;
+		}
+
+		if (added.length > 0) {
+			send(userId, Action.ADD_DISCORD_ROLES, added);
+		}
+		if (removed.length > 0) {
+			send(userId, Action.REMOVE_DISCORD_ROLES, removed);
+		}
+		this.knownRoles.put(userId, roles);
+		this.updated.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Same as {@link #reconcile(int, long[])}. Looks up the user id if it is not known yet.
+	 */
+	public boolean reconcile(final NamelessUser user, final long[] roleIds) throws NamelessException {
+		return reconcile(Objects.requireNonNull(user, "User is null").getId(), roleIds);
+	}
+
+	private void send(final int userId, final Action action, final long[] roles) throws NamelessException {
+		try {
+			this.requestsSent.incrementAndGet();
+			NamelessUser.postDiscordRoles(this.requests, action, userId, roles);
+		} catch (final NamelessException | RuntimeException e) {
+			// Unknown which roles the website has now
+			this.knownRoles.remove(userId);
+			throw e;
+		}
+	}
+
+	/**
+	 * Set the roles the website currently has for a user, without sending requests
+	 */
+	public void setKnownRoles(final int userId, final long[] roleIds) {
+		this.knownRoles.put(userId, toSet(roleIds));
+	}
+
+	/**
+	 * Forget the roles of a user, for example when they leave the guild. The next reconcile sets all roles.
+	 */
+	public void forget(final int userId) {
+		this.knownRoles.remove(userId);
+	}
+
+	public ReconcilerStatistics getStatistics() {
+		return new ReconcilerStatistics(this.knownRoles.size(), this.unchanged.get(), this.updated.get(), this.requestsSent.get());
+	}
+
+	/**
+	 * @return Sorted copy without duplicates
+	 */
+	static long[] toSet(final long[] values) {
+		Objects.requireNonNull(values, "Role ids array is null");
+		if (values.length == 0) {
+			return NO_ROLES;
+		}
+		final long[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int size = 1;
+		for (int i = 1; i < sorted.length; i++) {
+			if (sorted[i] != sorted[size - 1]) {
+				sorted[size++] = sorted[i];
+			}
+		}
+		return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+	}
+
+	/**
+	 * @param a sorted set
+	 * @param b sorted set
+	 * @return Values in a that are not in b, sorted
+	 */
+	static long[] difference(final long[] a, final long[] b) {
+		long[] result = NO_ROLES;
+		int size = 0;
+		int j = 0;
+		for (final long value : a) {
+			while (j < b.length && b[j] < value) {
+				j++;
+			}
+			if (j < b.length && b[j] == value) {
+				continue;
+			}
+			if (size == result.length) {
+				result = Arrays.copyOf(result, Math.max(4, size * 2));
+			}
+			result[size++] = value;
+		}
+		return size == result.length ? result : Arrays.copyOf(result, size);
+	}
+
+	public static class ReconcilerStatistics {
+
+		private final int users;
+		private final long unchanged;
+		private final long updated;
+		private final long requests;
+
+		ReconcilerStatistics(final int users, final long unchanged, final long updated, final long requests) {
+			this.users = users;
+			this.unchanged = unchanged;
+			this.updated = updated;
+			this.requests = requests;
+		}
+
+		/**
+		 * @return Number of users with known roles
+		 */
+		public int getUsers() {
+			return this.users;
+		}
+
+		/**
+		 * @return Number of reconciles that did not send requests
+		 */
+		public long getUnchanged() {
+			return this.unchanged;
+		}
+
+		/**
+		 * @return Number of reconciles that sent requests
+		 */
+		public long getUpdated() {
+			return this.updated;
+		}
+
+		/**
+		 * @return Number of requests sent, including failed requests
+		 */
+		public long getRequests() {
+			return this.requests;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("ReconcilerStatistics[users=%s, unchanged=%s, updated=%s, requests=%s]",
+					this.users, this.unchanged, this.updated, this.requests);
+		}
+
+	}
+
+}
@@ -0,0 +1,501 @@
+package com.namelessmc.java_api;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Codec that parses JSON directly from UTF-8 bytes into a Gson tree, and writes a Gson tree directly to
+ * UTF-8 bytes, skipping the Reader, Writer and String copies Gson needs. Only accepts strict JSON, as
+ * sent by the website. Integers are decoded as {@link Long} (or {@link BigInteger} if they don't fit),
+ * other numbers as {@link Double}.
+ */
+public class FastJsonCodec implements JsonCodec {
+
+	private static final int MAX_DEPTH = 512;
+
+	@Override
+	public JsonElement decode(final byte[] bytes, final int offset, final int length) {
+		final Decoder decoder = new Decoder(bytes, offset, offset + length);
+		decoder.skipWhitespace();
+		if (decoder.position == decoder.end) {
+			throw new JsonSyntaxException("Empty document");
+		}
+		final JsonElement element = decoder.readValue(0);
+		decoder.skipWhitespace();
+		if (decoder.position != decoder.end) {
+			throw decoder.error("Did not consume the entire document");
+		}
+		return element;
+	}
+
+	@Override
+	public byte[] encode(final JsonElement json) {
+		final Encoder encoder = new Encoder();
+		encoder.write(json, 0);
+		return Arrays.copyOf(encoder.buffer, encoder.count);
+	}
+
+	private static final class Decoder {
+
+		private final byte[] bytes;
+		private final int end;
+		private int position;
+		private char[] chars;
+
+		Decoder(final byte[] bytes, final int position, final int end) {
+			this.bytes = bytes;
+			this.position = position;
+			this.end = end;
+		}
+
+		JsonSyntaxException error(final String message) {
+			return new JsonSyntaxException(message + " at byte " + this.position);
+		}
+
+		void skipWhitespace() {
+			while (this.position < this.end) {
+				final byte b = this.bytes[this.position];
+				if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+					return;
+				}
+				this.position++;
+			}
+		}
+
+		private byte peek() {
+			if (this.position >= this.end) {
+				throw error("Unexpected end of document");
+			}
+			return this.bytes[this.position];
+		}
+
+		JsonElement readValue(final int depth) {
+			if (depth > MAX_DEPTH) {
+				throw error("Nesting too deep");
+			}
+
+			final byte b = peek();
+			switch (b) {
+				case '{':
+					return readObject(depth);
+				case '[':
+					return readArray(depth);
+				case '"':
+					return new JsonPrimitive(readString());
+				case 't':
+					expectLiteral("true");
+					return new JsonPrimitive(true);
+				case 'f':
+					expectLiteral("false");
+					return new JsonPrimitive(false);
+				case 'n':
+					expectLiteral("null");
+					return JsonNull.INSTANCE;
+				default:
+					if (b == '-' || b >= '0' && b <= '9') {
+						return new JsonPrimitive(readNumber());
+					}
+					throw error("Unexpected character '" + (char) b + "'");
+			}
+		}
+
+		private void expectLiteral(final String literal) {
+			if (this.position + literal.length() > this.end) {
+				throw error("Unexpected end of document");
+			}
+			for (int i = 0; i < literal.length(); i++) {
+				if (this.bytes[this.position + i] != literal.charAt(i)) {
+					throw error("Expected '" + literal + "'");
+				}
+			}
+			this.position += literal.length();
+		}
+
+		private JsonObject readObject(final int depth) {
+			final JsonObject object = new JsonObject();
+			this.position++; // {
+			skipWhitespace();
+			if (peek() == '}') {
+				this.position++;
+				return object;
+			}
+
+			while (true) {
+				if (peek() != '"') {
+					throw error("Expected name");
+				}
+				final String name = readString();
+				skipWhitespace();
+				if (peek() != ':') {
+					throw error("Expected ':'");
+				}
+				this.position++;
+				skipWhitespace();
+				object.add(name, readValue(depth + 1));
+				skipWhitespace();
+				final byte b = peek();
+				this.position++;
+				if (b == '}') {
+					return object;
+				} else if (b != ',') {
+					this.position--;
+					throw error("Expected ',' or '}'");
+				}
+				skipWhitespace();
+			}
+		}
+
+		private JsonArray readArray(final int depth) {
+			final JsonArray array = new JsonArray();
+			this.position++; // [
+			skipWhitespace();
+			if (peek() == ']') {
+				this.position++;
+				return array;
+			}
+
+			while (true) {
+				array.add(readValue(depth + 1));
+				skipWhitespace();
+				final byte b = peek();
+				this.position++;
+				if (b == ']') {
+					return array;
+				} else if (b != ',') {
+					this.position--;
+					throw error("Expected ',' or ']'");
+				}
+				skipWhitespace();
+			}
+		}
+
+		private String readString() {
+			this.position++; // "
+			final int start = this.position;
+			// Fast path for ASCII strings without escape sequences
+			for (int i = start; i < this.end; i++) {
+				final byte b = this.bytes[i];
+				if (b == '"') {
+					this.position = i + 1;
+					return new String(this.bytes, start, i - start, StandardCharsets.ISO_8859_1);
+				} else if (b == '\\' || b < 0) {
+					return readStringSlow(start);
+				}
+			}
+			throw error("Unterminated string");
+		}
+
+		private String readStringSlow(final int start) {
+			if (this.chars == null) {
+				// Most strings are short, grown below if needed
+				this.chars = new char[64];
+			}
+			char[] chars = this.chars;
+			int count = 0;
+			int position = start;
+			while (true) {
+				if (position >= this.end) {
+					this.position = position;
+					throw error("Unterminated string");
+				}
+				if (count + 2 > chars.length) {
+					chars = this.chars = Arrays.copyOf(chars, chars.length * 2);
+				}
+
+				final int b = this.bytes[position];
+				if (b == '"') {
+					this.position = position + 1;
+					return new String(chars, 0, count);
+				} else if (b == '\\') {
+					if (position + 1 >= this.end) {
+						this.position = position;
+						throw error("Unterminated string");
+					}
+					final byte escaped = this.bytes[position + 1];
+					position += 2;
+					switch (escaped) {
+						case '"':
+						case '\\':
+						case '/':
+							chars[count++] = (char) escaped;
+							break;
+						case 'b':
+							chars[count++] = '\b';
+							break;
+						case 'f':
+							chars[count++] = '\f';
+							break;
+						case 'n':
+							chars[count++] = '\n';
+							break;
+						case 'r':
+							chars[count++] = '\r';
+							break;
+						case 't':
+							chars[count++] = '\t';
+							break;
+						case 'u':
+							if (position + 4 > this.end) {
+								this.position = position;
+								throw error("Unterminated escape sequence");
+							}
+							int c = 0;
+							for (int i = 0; i < 4; i++) {
+								final int digit = Character.digit(this.bytes[position + i], 16);
+								if (digit == -1) {
+									this.position = position;
+									throw error("Invalid escape sequence");
+								}
+								c = (c << 4) | digit;
+							}
+							position += 4;
+							chars[count++] = (char) c;
+							break;
+						default:
+							this.position = position - 1;
+							throw error("Invalid escape sequence");
+					}
+				} else if (b >= 0) {
+					chars[count++] = (char) b;
+					position++;
+				} else {
+					// Multi-byte UTF-8 sequence
+					final int sequenceLength;
+					int codePoint;
+					if ((b & 0xE0) == 0xC0) {
+						sequenceLength = 2;
+						codePoint = b & 0x1F;
+					} else if ((b & 0xF0) == 0xE0) {
+						sequenceLength = 3;
+						codePoint = b & 0x0F;
+					} else if ((b & 0xF8) == 0xF0) {
+						sequenceLength = 4;
+						codePoint = b & 0x07;
+					} else {
+						sequenceLength = 1;
+						codePoint = -1;
+					}
+
+					boolean valid = sequenceLength > 1 && position + sequenceLength <= this.end;
+					for (int i = 1; valid && i < sequenceLength; i++) {
+						final int continuation = this.bytes[position + i];
+						if ((continuation & 0xC0) != 0x80) {
+							valid = false;
+						}
+						codePoint = (codePoint << 6) | (continuation & 0x3F);
+					}
+					if (valid && (codePoint < (sequenceLength == 2 ? 0x80 : sequenceLength == 3 ? 0x800 : 0x10000)
+							|| codePoint > Character.MAX_CODE_POINT
+							|| codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+						valid = false;
+					}
+
+					if (!valid) {
+						chars[count++] = '\uFFFD';
+						position++;
+					} else {
+						position += sequenceLength;
+						if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+							chars[count++] = (char) codePoint;
+						} else {
+							chars[count++] = Character.highSurrogate(codePoint);
+							chars[count++] = Character.lowSurrogate(codePoint);
+						}
+					}
+				}
+			}
+		}
+
+		private Number readNumber() {
+			final int start = this.position;
+			boolean integral = true;
+			int position = start;
+			if (this.bytes[position] == '-') {
+				position++;
+			}
+			final int digitsStart = position;
+			while (position < this.end) {
+				final byte b = this.bytes[position];
+				if (b >= '0' && b <= '9') {
+					position++;
+				} else if (b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-') {
+					integral = false;
+					position++;
+				} else {
+					break;
+				}
+			}
+			this.position = position;
+
+			final int digits = position - digitsStart;
+			if (digits == 0) {
+				throw error("Invalid number");
+			}
+
+			if (integral && digits <= 18) {
+				long value = 0;
+				for (int i = digitsStart; i < position; i++) {
+					value = value * 10 + (this.bytes[i] - '0');
+				}
+				return digitsStart != start ? -value : value;
+			}
+
+			final String text = new String(this.bytes, start, position - start, StandardCharsets.ISO_8859_1);
+			try {
+				if (integral) {
+					final BigInteger value = new BigInteger(text);
+					return value.bitLength() < 64 ? (Number) value.longValue() : value;
+				} else {
+					final double value = Double.parseDouble(text);
+					return Double.isInfinite(value) ? new BigDecimal(text) : value;
+				}
+			} catch (final NumberFormatException e) {
+				this.position = start;
+				throw error("Invalid number '" + text + "'");
+			}
+		}
+
+	}
+
+	private static final class Encoder {
+
+		private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+		private byte[] buffer = new byte[256];
+		private int count = 0;
+
+		private void ensureCapacity(final int additional) {
+			if (this.count + additional > this.buffer.length) {
+				this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.count + additional));
+			}
+		}
+
+		private void writeByte(final int b) {
+			ensureCapacity(1);
+			this.buffer[this.count++] = (byte) b;
+		}
+
+		private void writeAscii(final String s) {
+			ensureCapacity(s.length());
+			for (int i = 0; i < s.length(); i++) {
+				this.buffer[this.count++] = (byte) s.charAt(i);
+			}
+		}
+
+		void write(final JsonElement element, final int depth) {
+			if (depth > MAX_DEPTH) {
+				throw new IllegalArgumentException("Nesting too deep");
+			}
+
+			if (element == null || element.isJsonNull()) {
+				writeAscii("null");
+			} else if (element.isJsonObject()) {
+				writeByte('{');
+				boolean first = true;
+				for (final Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+					if (!first) {
+						writeByte(',');
+					}
+					first = false;
+					writeString(entry.getKey());
+					writeByte(':');
+					write(entry.getValue(), depth + 1);
+				}
+				writeByte('}');
+			} else if (element.isJsonArray()) {
+				writeByte('[');
+				boolean first = true;
+				for (final JsonElement child : element.getAsJsonArray()) {
+					if (!first) {
+						writeByte(',');
+					}
+					first = false;
+					write(child, depth + 1);
+				}
+				writeByte(']');
+			} else {
+				final JsonPrimitive primitive = element.getAsJsonPrimitive();
+				if (primitive.isString()) {
+					writeString(primitive.getAsString());
+				} else {
+					// Numbers and booleans
+					writeAscii(primitive.getAsString());
+				}
+			}
+		}
+
+		private void writeString(final String s) {
+			// Worst case is 6 bytes per char (\u0000)
+			ensureCapacity(s.length() * 6 + 2);
+			final byte[] buffer = this.buffer;
+			int count = this.count;
+			buffer[count++] = '"';
+			for (int i = 0; i < s.length(); i++) {
+				final char c = s.charAt(i);
+				if (c >= 0x20 && c < 0x80) {
+					if (c == '"' || c == '\\') {
+						buffer[count++] = '\\';
+					}
+					buffer[count++] = (byte) c;
+				} else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+					buffer[count++] = '\\';
+					switch (c) {
+						case '\n':
+							buffer[count++] = 'n';
+							break;
+						case '\r':
+							buffer[count++] = 'r';
+							break;
+						case '\t':
+							buffer[count++] = 't';
+							break;
+						case '\b':
+							buffer[count++] = 'b';
+							break;
+						case '\f':
+							buffer[count++] = 'f';
+							break;
+						default:
+							buffer[count++] = 'u';
+							buffer[count++] = HEX[c >> 12 & 0xF];
+							buffer[count++] = HEX[c >> 8 & 0xF];
+							buffer[count++] = HEX[c >> 4 & 0xF];
+							buffer[count++] = HEX[c & 0xF];
+					}
+				} else if (c < 0x800) {
+					buffer[count++] = (byte) (0xC0 | c >> 6);
+					buffer[count++] = (byte) (0x80 | c & 0x3F);
+				} else if (Character.isSurrogate(c)) {
+					if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+						final int codePoint = Character.toCodePoint(c, s.charAt(++i));
+						buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+						buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+						buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+						buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+					} else {
+						// Unpaired surrogate, replaced like String#getBytes does
+						buffer[count++] = '?';
+					}
+				} else {
+					buffer[count++] = (byte) (0xE0 | c >> 12);
+					buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+					buffer[count++] = (byte) (0x80 | c & 0x3F);
+				}
+			}
+			buffer[count++] = '"';
+			this.count = count;
+		}
+
+	}
+
+}
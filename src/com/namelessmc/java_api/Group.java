@@ -16,6 +16,16 @@ public class Group implements Comparable<Group> {
 		this.staff = group.has("staff") && group.get("staff").getAsBoolean();
 	}
 
+	/**
+	 * @return True if this group has the same properties as the group sent by the website
+	 */
+	boolean matches(final JsonObject group) {
+		return this.id == group.get("id").getAsInt()
+				&& this.name.equals(group.get("name").getAsString())
+				&& this.order == group.get("order").getAsInt()
+				&& this.staff == (group.has("staff") && group.get("staff").getAsBoolean());
+	}
+
 	public int getId() {
 		return this.id;
 	}
@@ -0,0 +1,174 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Keeps the list of website groups in memory. The list is loaded when it is first used, and refreshed in
+ * the background on the API's executor when it is used after the refresh interval (configured using
+ * {@link NamelessApiBuilder#groupRefreshInterval(long)}) has passed. Lookups return the old list while it
+ * is being refreshed.
+ *
+ * <p>Group objects are shared: groups returned by {@link NamelessUser#getGroups()} are the same instances
+ * as the groups in this registry, as long as the group has not changed on the website.</p>
+ */
+public final class GroupRegistry {
+
+	private final RequestHandler requests;
+	private final Executor executor;
+	private final long refreshIntervalNanos;
+
+	private final Map<Integer, Group> interned = new ConcurrentHashMap<>();
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	private volatile Snapshot snapshot = null; // null until loaded
+
+	GroupRegistry(final RequestHandler requests, final Executor executor, final long refreshInterval) {
+		this.requests = requests;
+		this.executor = executor;
+		this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshInterval);
+	}
+
+	/**
+	 * @param id group id
+	 * @return Group with this id, or empty if no group with this id exists
+	 * @throws NamelessException if the group list had not been loaded yet, and loading it failed
+	 */
+	public Optional<Group> getGroup(final int id) throws NamelessException {
+		return Optional.ofNullable(current().byId.get(id));
+	}
+
+	/**
+	 * @param name group name
+	 * @return Unmodifiable list of groups with this name, empty if there are no groups with this name
+	 * @throws NamelessException if the group list had not been loaded yet, and loading it failed
+	 */
+	public List<Group> getGroups(final String name) throws NamelessException {
+		return current().byName.getOrDefault(name, Collections.emptyList());
+	}
+
+	/**
+	 * @return Unmodifiable list of all groups, sorted from low order to high order
+	 * @throws NamelessException if the group list had not been loaded yet, and loading it failed
+	 */
+	public List<Group> getAllGroups() throws NamelessException {
+		return current().all;
+	}
+
+	public int[] getAllGroupIds() throws NamelessException {
+		final List<Group> groups = current().all;
+		final int[] ids = new int[groups.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = groups.get(i).getId();
+		}
+		return ids;
+	}
+
+	/**
+	 * Load the group list from the website now, instead of waiting for the next scheduled refresh
+	 *
+	 * @throws NamelessException
+	 */
+	public void refresh() throws NamelessException {
+		final JsonObject response = this.requests.get(Action.GROUP_INFO);
+		update(response.getAsJsonArray("groups"));
+	}
+
+	private Snapshot current() throws NamelessException {
+		final Snapshot snapshot = this.snapshot;
+		if (snapshot == null) {
+			refresh();
+			return this.snapshot;
+		}
+
+		if (System.nanoTime() - snapshot.loadTime >= this.refreshIntervalNanos
+				&& this.refreshing.compareAndSet(false, true)) {
+			try {
+				this.executor.execute(() -> {
+					try {
+						refresh();
+					} catch (final NamelessException | RuntimeException ignored) {
+						// Keep using the old list, the next lookup will try again
+					} finally {
+						this.refreshing.set(false);
+					}
+				});
+			} catch (final RejectedExecutionException e) {
+				this.refreshing.set(false);
+			}
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Replace the group list
+	 *
+	 * @param groupsJson `groups` array from a `groupInfo` response with all groups
+	 * @return The new list of groups, in the order of the array
+	 */
+	List<Group> update(final JsonArray groupsJson) {
+		final Group[] groups = new Group[groupsJson.size()];
+		for (int i = 0; i < groups.length; i++) {
+			groups[i] = intern(groupsJson.get(i).getAsJsonObject());
+		}
+
+		this.snapshot = new Snapshot(groups, System.nanoTime());
+		return Collections.unmodifiableList(Arrays.asList(groups));
+	}
+
+	/**
+	 * @param groupJson group object sent by the website
+	 * @return Shared group instance equal to the provided group
+	 */
+	Group intern(final JsonObject groupJson) {
+		final int id = groupJson.get("id").getAsInt();
+		final Group existing = this.interned.get(id);
+		if (existing != null && existing.matches(groupJson)) {
+			return existing;
+		}
+
+		final Group group = new Group(groupJson);
+		this.interned.put(id, group);
+		return group;
+	}
+
+	private static class Snapshot {
+
+		private final List<Group> all;
+		private final Map<Integer, Group> byId;
+		private final Map<String, List<Group>> byName;
+		private final long loadTime;
+
+		Snapshot(final Group[] groups, final long loadTime) {
+			final Group[] sorted = groups.clone();
+			Arrays.sort(sorted);
+			this.all = Collections.unmodifiableList(Arrays.asList(sorted));
+
+			this.byId = new HashMap<>();
+			final Map<String, List<Group>> byName = new HashMap<>();
+			for (final Group group : sorted) {
+				this.byId.put(group.getId(), group);
+				byName.computeIfAbsent(group.getName(), k -> new ArrayList<>(1)).add(group);
+			}
+			byName.replaceAll((name, list) -> Collections.unmodifiableList(list));
+			this.byName = byName;
+			this.loadTime = loadTime;
+		}
+
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.namelessmc.java_api;
+
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Codec using Gson's own (lenient) parser and writer.
+ */
+public class GsonJsonCodec implements JsonCodec {
+
+	@Override
+	public JsonElement decode(final byte[] bytes, final int offset, final int length) {
+		return JsonParser.parseReader(new Utf8ByteReader(bytes, offset, length));
+	}
+
+	@Override
+	public byte[] encode(final JsonElement json) {
+		return json.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+}
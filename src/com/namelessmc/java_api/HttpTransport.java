@@ -0,0 +1,84 @@
+package com.namelessmc.java_api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+
+import com.namelessmc.java_api.RequestHandler.RequestMethod;
+
+/**
+ * Sends HTTP requests on behalf of the {@link RequestHandler}. A transport can be chosen
+ * using {@link NamelessApiBuilder#transport(HttpTransport)}. The library ships with
+ * {@link UrlConnectionTransport} (default) and {@link PooledHttpTransport}.
+ */
+public interface HttpTransport {
+
+	/**
+	 * Send a request and wait for the response headers. The response body is read by the caller,
+	 * which closes the response afterwards.
+	 *
+	 * @param request request to send
+	 * @return response, must be closed by the caller
+	 * @throws IOException if the request could not be sent or no response was received
+	 */
+	Response send(Request request) throws IOException;
+
+	final class Request {
+
+		private final URL url;
+		private final RequestMethod method;
+		private final Map<String, String> headers;
+		private final byte[] body;
+
+		Request(final URL url, final RequestMethod method, final Map<String, String> headers, final byte[] body) {
+			this.url = url;
+			this.method = method;
+			this.headers = headers;
+			this.body = body;
+		}
+
+		public URL getUrl() {
+			return this.url;
+		}
+
+		public RequestMethod getMethod() {
+			return this.method;
+		}
+
+		/**
+		 * @return Unmodifiable map of request headers to send, not including Host and Content-Length
+		 */
+		public Map<String, String> getHeaders() {
+			return this.headers;
+		}
+
+		/**
+		 * @return Request body, null for GET requests
+		 */
+		public byte[] getBody() {
+			return this.body;
+		}
+
+	}
+
+	interface Response extends Closeable {
+
+		int getStatusCode() throws IOException;
+
+		/**
+		 * @param name case insensitive header name
+		 * @return Header value, or null if the website did not send this header
+		 */
+		String getHeader(String name);
+
+		/**
+		 * @return Response body, or an empty stream if the website did not send one. Also used for error responses.
+		 * @throws IOException
+		 */
+		InputStream getBody() throws IOException;
+
+	}
+
+}
@@ -0,0 +1,152 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Sends in-game groups of many players using {@link NamelessAPI#submitIngameRanks(int, Map)}, only sending
+ * players whose groups changed since they were last sent. Changed players are split into requests of at
+ * most a configured number of players, which are sent in parallel.
+ *
+ * <p>Players missing from a sync are not sent, and their last sent groups are kept, so players that leave
+ * and join again are only sent if their groups changed. Players in a failed request are sent again by the
+ * next sync.</p>
+ */
+public final class IngameRankSync {
+
+	private final NamelessAPI api;
+	private final int serverId;
+	private final int batchSize;
+	private final int maxParallelRequests;
+
+	private final Map<UUID, List<String>> lastSent = new ConcurrentHashMap<>();
+	private final Object syncLock = new Object();
+
+	private IngameRankSync(final NamelessAPI api, final Builder builder) {
+		this.api = api;
+		this.serverId = builder.serverId;
+		this.batchSize = builder.batchSize;
+		this.maxParallelRequests = builder.maxParallelRequests;
+	}
+
+	/**
+	 * Send groups of players whose groups changed. If multiple threads call this method at the same time,
+	 * syncs are run one after the other.
+	 *
+	 * @param ranks in-game groups of each online player, primary group first
+	 * @return Number of players sent
+	 * @throws NamelessException if a request failed. Other requests are still sent.
+	 */
+	public int sync(final Map<UUID, List<String>> ranks) throws NamelessException {
+		Objects.requireNonNull(ranks, "Ranks map is null");
+
+		synchronized (this.syncLock) {
+			final List<Map<UUID, List<String>>> batches = new ArrayList<>();
+			Map<UUID, List<String>> batch = null;
+			int changed = 0;
+			for (final Map.Entry<UUID, List<String>> entry : ranks.entrySet()) {
+				final UUID uuid = Objects.requireNonNull(entry.getKey(), "UUID is null");
+				final List<String> groups = Objects.requireNonNull(entry.getValue(), "Groups list is null");
+				if (groups.equals(this.lastSent.get(uuid))) {
+					continue;
+				}
+				if (batch == null || batch.size() == this.batchSize) {
+					batch = new LinkedHashMap<>();
+					batches.add(batch);
+				}
+				// Copied, so later changes to the caller's list are detected
+				batch.put(uuid, new ArrayList<>(groups));
+				changed++;
+			}
+
+			if (!batches.isEmpty()) {
+				send(batches);
+			}
+			return changed;
+		}
+	}
+
+	/**
+	 * Send batches using the calling thread and up to {@link #maxParallelRequests} - 1 threads of the API executor
+	 */
+	private void send(final List<Map<UUID, List<String>>> batches) throws NamelessException {
+		ParallelTasks.run(this.api.async().getExecutor(), this.maxParallelRequests, batches.size(), false, i -> {
+			final Map<UUID, List<String>> batch = batches.get(i);
+			this.api.submitIngameRanks(this.serverId, batch);
+			this.lastSent.putAll(batch);
+		});
+	}
+
+	/**
+	 * Forget the groups sent for a player, so they are sent by the next sync
+	 */
+	public void forget(final UUID uuid) {
+		this.lastSent.remove(uuid);
+	}
+
+	/**
+	 * Forget the groups sent for all players, so the next sync sends all players. For example after the
+	 * website's group sync settings changed.
+	 */
+	public void reset() {
+		this.lastSent.clear();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private int serverId = -1;
+		private int batchSize = 500;
+		private int maxParallelRequests = 4;
+
+		Builder() {
+		}
+
+		/**
+		 * @param serverId website id of this Minecraft server. Required.
+		 */
+		public Builder serverId(final int serverId) {
+			Validate.isTrue(serverId >= 0, "Server id must not be negative");
+			this.serverId = serverId;
+			return this;
+		}
+
+		/**
+		 * @param batchSize maximum number of players per request. Default 500.
+		 */
+		public Builder batchSize(final int batchSize) {
+			Validate.isTrue(batchSize > 0, "Batch size must be positive");
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * @param maxParallelRequests maximum number of requests sent at the same time. Default 4.
+		 */
+		public Builder maxParallelRequests(final int maxParallelRequests) {
+			Validate.isTrue(maxParallelRequests > 0, "Maximum parallel requests must be positive");
+			this.maxParallelRequests = maxParallelRequests;
+			return this;
+		}
+
+		public IngameRankSync build(final NamelessAPI api) {
+			Objects.requireNonNull(api, "API is null");
+			if (this.serverId == -1) {
+				throw new IllegalStateException("No server id specified");
+			}
+			return new IngameRankSync(api, this);
+		}
+
+	}
+
+}
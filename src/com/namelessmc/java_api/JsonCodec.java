@@ -0,0 +1,28 @@
+package com.namelessmc.java_api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+/**
+ * Converts between raw request and response bodies and the Gson tree used by the model classes. A codec can
+ * be chosen using {@link NamelessApiBuilder#codec(JsonCodec)}. The library ships with {@link FastJsonCodec}
+ * (default) and {@link GsonJsonCodec}. Implementations must be thread safe.
+ */
+public interface JsonCodec {
+
+	/**
+	 * @param bytes  UTF-8 encoded JSON
+	 * @param offset start of JSON in array
+	 * @param length length of JSON in bytes
+	 * @return Decoded JSON, must not hold a reference to the byte array
+	 * @throws JsonParseException if the bytes are not valid JSON
+	 */
+	JsonElement decode(byte[] bytes, int offset, int length);
+
+	/**
+	 * @param json JSON to encode
+	 * @return UTF-8 encoded JSON
+	 */
+	byte[] encode(JsonElement json);
+
+}
@@ -0,0 +1,153 @@
+package com.namelessmc.java_api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of latencies with microsecond resolution and a fixed memory footprint (8 KiB).
+ * Like HdrHistogram, buckets are log-linear: every power of two range is split into 32 equal buckets,
+ * so recorded values are accurate to about 3%. Values above 2^36 microseconds (19 hours) are clamped.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS; // 64
+	private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1; // 32
+	private static final int MAX_VALUE_BITS = 36;
+	private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+	static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param nanos latency in nanoseconds
+	 */
+	public void record(final long nanos) {
+		final long micros = Math.min(MAX_VALUE, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+		this.counts.incrementAndGet(bucketIndex(micros));
+		this.count.increment();
+		this.sum.add(micros);
+		long max;
+		while (micros > (max = this.max.get()) && !this.max.compareAndSet(max, micros)) {
+			// retry
+		}
+	}
+
+	static int bucketIndex(final long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		final int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return Highest value that is counted in the bucket
+	 */
+	static long bucketValue(final int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		final int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+		final long mantissa = index - (long) shift * SUB_BUCKET_HALF;
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * @return Copy of the current counts. Values recorded while the copy is made may be partially included.
+	 */
+	public Snapshot snapshot() {
+		final long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = this.counts.get(i);
+			total += counts[i];
+		}
+		return new Snapshot(counts, total, this.sum.sum(), this.max.get());
+	}
+
+	public static final class Snapshot {
+
+		private final long[] counts;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		Snapshot(final long[] counts, final long count, final long sum, final long max) {
+			this.counts = counts;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * @return Number of recorded values
+		 */
+		public long getCount() {
+			return this.count;
+		}
+
+		/**
+		 * @return Mean latency in microseconds, 0 if no values were recorded
+		 */
+		public double getMean() {
+			return this.count == 0 ? 0 : (double) this.sum / this.count;
+		}
+
+		/**
+		 * @return Highest recorded latency in microseconds
+		 */
+		public long getMax() {
+			return this.max;
+		}
+
+		/**
+		 * @param percentile percentile between 0 and 100, for example 99.9
+		 * @return Latency in microseconds that the given percentage of recorded values is equal to or below, 0 if no values were recorded
+		 */
+		public long getValueAtPercentile(final double percentile) {
+			if (this.count == 0) {
+				return 0;
+			}
+
+			final long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * this.count));
+			long seen = 0;
+			for (int i = 0; i < this.counts.length; i++) {
+				seen += this.counts[i];
+				if (seen >= rank) {
+					return Math.min(bucketValue(i), this.max);
+				}
+			}
+			return this.max;
+		}
+
+		public long getP50() {
+			return getValueAtPercentile(50);
+		}
+
+		public long getP90() {
+			return getValueAtPercentile(90);
+		}
+
+		public long getP99() {
+			return getValueAtPercentile(99);
+		}
+
+		public long getP999() {
+			return getValueAtPercentile(99.9);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("Snapshot[count=%s, mean=%.1f, p50=%s, p90=%s, p99=%s, p999=%s, max=%s]",
+					this.count, getMean(), getP50(), getP90(), getP99(), getP999(), this.max);
+		}
+
+	}
+
+}
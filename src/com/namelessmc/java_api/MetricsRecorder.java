@@ -0,0 +1,249 @@
+package com.namelessmc.java_api;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Request listener that keeps statistics per action: latency histogram, request count, failures, bytes sent
+ * and received, requests in progress, HTTP status codes and API error codes. Register it using
+ * {@link NamelessApiBuilder#listener(RequestListener)} and periodically read {@link #getSnapshot()}, for
+ * example to forward the numbers to a monitoring system. Recording does not lock.
+ *
+ * <p>Counters only increase, so a monitoring system can calculate throughput from the difference
+ * between two snapshots.</p>
+ */
+public final class MetricsRecorder implements RequestListener {
+
+	// by action ordinal, created when the action is first used
+	private final AtomicReferenceArray<ActionRecorder> recorders = new AtomicReferenceArray<>(Action.values().length);
+
+	@Override
+	public void requestStarted(final Action action) {
+		recorder(action).inFlight.incrementAndGet();
+	}
+
+	@Override
+	public void requestCompleted(final Action action, final int statusCode, final int apiError, final long requestBytes,
+			final long responseBytes, final long latencyNanos, final boolean success) {
+		final ActionRecorder recorder = recorder(action);
+		recorder.inFlight.decrementAndGet();
+		recorder.requests.increment();
+		if (!success) {
+			recorder.failures.increment();
+		}
+		recorder.requestBytes.add(requestBytes);
+		recorder.responseBytes.add(responseBytes);
+		recorder.latency.record(latencyNanos);
+		increment(recorder.statusCodes, statusCode);
+		if (apiError != NO_API_ERROR) {
+			increment(recorder.apiErrors, apiError);
+		}
+	}
+
+	private ActionRecorder recorder(final Action action) {
+		final ActionRecorder recorder = this.recorders.get(action.ordinal());
+		if (recorder != null) {
+			return recorder;
+		}
+		this.recorders.compareAndSet(action.ordinal(), null, new ActionRecorder());
+		return this.recorders.get(action.ordinal());
+	}
+
+	private static void increment(final Map<Integer, LongAdder> counters, final int key) {
+		LongAdder counter = counters.get(key);
+		if (counter == null) {
+			counter = counters.computeIfAbsent(key, k -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	/**
+	 * @return Statistics for all actions that have been requested at least once
+	 */
+	public MetricsSnapshot getSnapshot() {
+		final Map<Action, ActionMetrics> actions = new EnumMap<>(Action.class);
+		for (final Action action : Action.values()) {
+			final ActionRecorder recorder = this.recorders.get(action.ordinal());
+			if (recorder != null) {
+				actions.put(action, recorder.snapshot());
+			}
+		}
+		return new MetricsSnapshot(System.currentTimeMillis(), Collections.unmodifiableMap(actions));
+	}
+
+	private static class ActionRecorder {
+
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder requestBytes = new LongAdder();
+		private final LongAdder responseBytes = new LongAdder();
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+		private final Map<Integer, LongAdder> apiErrors = new ConcurrentHashMap<>();
+
+		ActionMetrics snapshot() {
+			return new ActionMetrics(this.inFlight.get(), this.requests.sum(), this.failures.sum(),
+					this.requestBytes.sum(), this.responseBytes.sum(), this.latency.snapshot(),
+					sums(this.statusCodes), sums(this.apiErrors));
+		}
+
+		private static Map<Integer, Long> sums(final Map<Integer, LongAdder> counters) {
+			final Map<Integer, Long> sums = new TreeMap<>();
+			counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+			return Collections.unmodifiableMap(sums);
+		}
+
+	}
+
+	public static final class MetricsSnapshot {
+
+		private final long time;
+		private final Map<Action, ActionMetrics> actions;
+
+		MetricsSnapshot(final long time, final Map<Action, ActionMetrics> actions) {
+			this.time = time;
+			this.actions = actions;
+		}
+
+		/**
+		 * @return Time the snapshot was taken, in epoch milliseconds
+		 */
+		public long getTime() {
+			return this.time;
+		}
+
+		/**
+		 * @return Unmodifiable map of statistics per action, only containing actions that have been requested
+		 */
+		public Map<Action, ActionMetrics> getActions() {
+			return this.actions;
+		}
+
+		/**
+		 * @return Total number of completed requests for all actions
+		 */
+		public long getRequests() {
+			long requests = 0;
+			for (final ActionMetrics metrics : this.actions.values()) {
+				requests += metrics.requests;
+			}
+			return requests;
+		}
+
+		/**
+		 * @return Total number of requests in progress for all actions
+		 */
+		public int getInFlight() {
+			int inFlight = 0;
+			for (final ActionMetrics metrics : this.actions.values()) {
+				inFlight += metrics.inFlight;
+			}
+			return inFlight;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("MetricsSnapshot[time=%s, actions=%s]", this.time, this.actions);
+		}
+
+	}
+
+	public static final class ActionMetrics {
+
+		private final int inFlight;
+		private final long requests;
+		private final long failures;
+		private final long requestBytes;
+		private final long responseBytes;
+		private final LatencyHistogram.Snapshot latency;
+		private final Map<Integer, Long> statusCodes;
+		private final Map<Integer, Long> apiErrors;
+
+		ActionMetrics(final int inFlight, final long requests, final long failures, final long requestBytes,
+				final long responseBytes, final LatencyHistogram.Snapshot latency, final Map<Integer, Long> statusCodes,
+				final Map<Integer, Long> apiErrors) {
+			this.inFlight = inFlight;
+			this.requests = requests;
+			this.failures = failures;
+			this.requestBytes = requestBytes;
+			this.responseBytes = responseBytes;
+			this.latency = latency;
+			this.statusCodes = statusCodes;
+			this.apiErrors = apiErrors;
+		}
+
+		/**
+		 * @return Number of requests currently in progress
+		 */
+		public int getInFlight() {
+			return this.inFlight;
+		}
+
+		/**
+		 * @return Number of completed requests, including failed requests
+		 */
+		public long getRequests() {
+			return this.requests;
+		}
+
+		/**
+		 * @return Number of requests that failed with an exception
+		 */
+		public long getFailures() {
+			return this.failures;
+		}
+
+		/**
+		 * @return Total size of request bodies sent
+		 */
+		public long getRequestBytes() {
+			return this.requestBytes;
+		}
+
+		/**
+		 * @return Total size of response bodies received
+		 */
+		public long getResponseBytes() {
+			return this.responseBytes;
+		}
+
+		/**
+		 * @return Latency histogram, in microseconds
+		 */
+		public LatencyHistogram.Snapshot getLatency() {
+			return this.latency;
+		}
+
+		/**
+		 * @return Number of requests per HTTP status code, {@link RequestListener#NO_RESPONSE} for requests without response
+		 */
+		public Map<Integer, Long> getStatusCodes() {
+			return this.statusCodes;
+		}
+
+		/**
+		 * @return Number of requests per {@link ApiError} code
+		 */
+		public Map<Integer, Long> getApiErrors() {
+			return this.apiErrors;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("ActionMetrics[inFlight=%s, requests=%s, failures=%s, requestBytes=%s, responseBytes=%s, latency=%s, statusCodes=%s, apiErrors=%s]",
+					this.inFlight, this.requests, this.failures, this.requestBytes, this.responseBytes, this.latency,
+					this.statusCodes, this.apiErrors);
+		}
+
+	}
+
+}
@@ -0,0 +1,330 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.Validate;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Collects user modifications and sends them in the background, combining modifications made shortly after
+ * each other into as few requests as possible. Use this instead of the methods in {@link NamelessUser} and
+ * {@link NamelessAPI} when making many modifications at once, for example when a Discord role is given to
+ * many members.
+ *
+ * <ul>
+ *     <li>Group and Discord role changes are combined per user into their net effect: adding and then
+ *     removing a group only removes it. Each user then takes at most one request per action.</li>
+ *     <li>Discord username updates for all users are sent in one {@code updateDiscordUsernames} request.</li>
+ * </ul>
+ *
+ * <p>Modifications are sent after the flush delay has passed since the first pending modification, when
+ * the number of pending modifications reaches the configured maximum, or when {@link #flush()} is called.
+ * Requests are sent one after the other on a background thread, in the order modifications were flushed.
+ * Each method returns a future that completes when the request containing the modification has been
+ * sent, or completes exceptionally if it failed. All modifications of one user in one flush complete together.
+ * Futures are completed on the background thread, so callbacks must not block.</p>
+ */
+public final class MutationQueue implements AutoCloseable {
+
+	private final NamelessAPI api;
+	private final long flushDelay;
+	private final int maxPendingOperations;
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	private final Object lock = new Object();
+	// Guarded by lock
+	private Map<Integer, PendingUser> users = new LinkedHashMap<>();
+	private Map<Long, String> discordUsernames = new LinkedHashMap<>();
+	private List<CompletableFuture<Void>> discordUsernameFutures = new ArrayList<>();
+	private int pendingOperations = 0;
+	private ScheduledFuture<?> timer = null;
+	private boolean sizeFlushSubmitted = false;
+	private boolean closed = false;
+
+	private MutationQueue(final NamelessAPI api, final Builder builder) {
+		this.api = api;
+		this.flushDelay = builder.flushDelay;
+		this.maxPendingOperations = builder.maxPendingOperations;
+		this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+			final Thread thread = new Thread(runnable, "Nameless-MutationQueue");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+
+	public CompletableFuture<Void> addGroups(final int userId, final Group... groups) {
+		final int[] groupIds = NamelessUser.groupIds(groups);
+		return enqueue(userId, user -> {
+			for (final int groupId : groupIds) {
+				user.groups.put(groupId, true);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> removeGroups(final int userId, final Group... groups) {
+		final int[] groupIds = NamelessUser.groupIds(groups);
+		return enqueue(userId, user -> {
+			for (final int groupId : groupIds) {
+				user.groups.put(groupId, false);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> addDiscordRoles(final int userId, final long... roleIds) {
+		Objects.requireNonNull(roleIds, "Role ids array is null");
+		return enqueue(userId, user -> {
+			for (final long roleId : roleIds) {
+				user.discordRoles.put(roleId, true);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> removeDiscordRoles(final int userId, final long... roleIds) {
+		Objects.requireNonNull(roleIds, "Role ids array is null");
+		return enqueue(userId, user -> {
+			for (final long roleId : roleIds) {
+				user.discordRoles.put(roleId, false);
+			}
+		});
+	}
+
+	public CompletableFuture<Void> updateDiscordUsername(final long discordUserId, final String discordUsername) {
+		Objects.requireNonNull(discordUsername, "Discord username is null");
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		synchronized (this.lock) {
+			checkOpen();
+			this.discordUsernames.put(discordUserId, discordUsername);
+			this.discordUsernameFutures.add(future);
+			operationAdded();
+		}
+		return future;
+	}
+
+	private CompletableFuture<Void> enqueue(final int userId, final Consumer<PendingUser> change) {
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		synchronized (this.lock) {
+			checkOpen();
+			final PendingUser user = this.users.computeIfAbsent(userId, PendingUser::new);
+			change.accept(user);
+			user.futures.add(future);
+			operationAdded();
+		}
+		return future;
+	}
+
+	private void checkOpen() {
+		if (this.closed) {
+			throw new IllegalStateException("Mutation queue is closed");
+		}
+	}
+
+	/**
+	 * Start the flush delay, or flush now if there are too many pending operations. Must hold lock.
+	 */
+	private void operationAdded() {
+		this.pendingOperations++;
+		if (this.pendingOperations >= this.maxPendingOperations) {
+			if (!this.sizeFlushSubmitted) {
+				this.sizeFlushSubmitted = true;
+				this.scheduler.execute(this::send);
+			}
+		} else if (this.timer == null) {
+			this.timer = this.scheduler.schedule(this::send, this.flushDelay, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * @return Number of modifications that have not been sent yet
+	 */
+	public int getPendingOperations() {
+		synchronized (this.lock) {
+			return this.pendingOperations;
+		}
+	}
+
+	/**
+	 * Send all pending modifications now
+	 *
+	 * @return Future completed when all modifications pending at the time of this call have been sent. It
+	 * does not complete exceptionally, failures are reported by the futures of the modifications.
+	 */
+	public CompletableFuture<Void> flush() {
+		final CompletableFuture<Void> future = new CompletableFuture<>();
+		try {
+			this.scheduler.execute(() -> {
+				try {
+					send();
+				} finally {
+					future.complete(null);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			// Closed, everything has already been sent
+			future.complete(null);
+		}
+		return future;
+	}
+
+	/**
+	 * Stop accepting modifications, send pending modifications and wait until they have been sent
+	 */
+	@Override
+	public void close() {
+		synchronized (this.lock) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+		}
+		final CompletableFuture<Void> flushed = flush();
+		this.scheduler.shutdown();
+		flushed.join();
+	}
+
+	/**
+	 * Send everything that is pending. Only runs on the scheduler thread.
+	 */
+	private void send() {
+		final Map<Integer, PendingUser> users;
+		final Map<Long, String> discordUsernames;
+		final List<CompletableFuture<Void>> discordUsernameFutures;
+		synchronized (this.lock) {
+			users = this.users;
+			discordUsernames = this.discordUsernames;
+			discordUsernameFutures = this.discordUsernameFutures;
+			this.users = new LinkedHashMap<>();
+			this.discordUsernames = new LinkedHashMap<>();
+			this.discordUsernameFutures = new ArrayList<>();
+			this.pendingOperations = 0;
+			this.sizeFlushSubmitted = false;
+			if (this.timer != null) {
+				this.timer.cancel(false);
+				this.timer = null;
+			}
+		}
+
+		for (final PendingUser user : users.values()) {
+			try {
+				sendUser(user);
+				user.futures.forEach(future -> future.complete(null));
+			} catch (final NamelessException | RuntimeException e) {
+				user.futures.forEach(future -> future.completeExceptionally(e));
+			}
+		}
+
+		if (!discordUsernames.isEmpty()) {
+			final long[] ids = new long[discordUsernames.size()];
+			final String[] names = new String[ids.length];
+			int i = 0;
+			for (final Map.Entry<Long, String> entry : discordUsernames.entrySet()) {
+				ids[i] = entry.getKey();
+				names[i] = entry.getValue();
+				i++;
+			}
+			try {
+				this.api.updateDiscordUsernames(ids, names);
+				discordUsernameFutures.forEach(future -> future.complete(null));
+			} catch (final NamelessException | RuntimeException e) {
+				discordUsernameFutures.forEach(future -> future.completeExceptionally(e));
+			}
+		}
+	}
+
+	private void sendUser(final PendingUser user) throws NamelessException {
+		final RequestHandler requests = this.api.getRequestHandler();
+		if (!user.groups.isEmpty()) {
+			try {
+				final int[] added = user.groups.entrySet().stream().filter(Map.Entry::getValue).mapToInt(Map.Entry::getKey).toArray();
+				final int[] removed = user.groups.entrySet().stream().filter(e -> !e.getValue()).mapToInt(Map.Entry::getKey).toArray();
+				if (added.length > 0) {
+					NamelessUser.postGroups(requests, Action.ADD_GROUPS, user.id, added);
+				}
+				if (removed.length > 0) {
+					NamelessUser.postGroups(requests, Action.REMOVE_GROUPS, user.id, removed);
+				}
+			} finally {
+				// Groups modified, also if only some requests succeeded
+				this.api.getUserCache().ifPresent(cache -> cache.invalidate(user.id));
+			}
+		}
+		if (!user.discordRoles.isEmpty()) {
+			final long[] added = user.discordRoles.entrySet().stream().filter(Map.Entry::getValue).mapToLong(Map.Entry::getKey).toArray();
+			final long[] removed = user.discordRoles.entrySet().stream().filter(e -> !e.getValue()).mapToLong(Map.Entry::getKey).toArray();
+			if (added.length > 0) {
+				NamelessUser.postDiscordRoles(requests, Action.ADD_DISCORD_ROLES, user.id, added);
+			}
+			if (removed.length > 0) {
+				NamelessUser.postDiscordRoles(requests, Action.REMOVE_DISCORD_ROLES, user.id, removed);
+			}
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Pending modifications of one user. Map values are true to add, false to remove, so a later modification
+	 * of the same group or role replaces an earlier one.
+	 */
+	private static class PendingUser {
+
+		private final int id;
+		private final Map<Integer, Boolean> groups = new LinkedHashMap<>();
+		private final Map<Long, Boolean> discordRoles = new LinkedHashMap<>();
+		private final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+		PendingUser(final int id) {
+			this.id = id;
+		}
+
+	}
+
+	public static class Builder {
+
+		private long flushDelay = 1000;
+		private int maxPendingOperations = 1000;
+
+		Builder() {
+		}
+
+		/**
+		 * @param flushDelay time in milliseconds modifications are kept before they are sent. Default 1 second.
+		 */
+		public Builder flushDelay(final long flushDelay) {
+			Validate.isTrue(flushDelay >= 0, "Flush delay must not be negative");
+			this.flushDelay = flushDelay;
+			return this;
+		}
+
+		/**
+		 * @param maxPendingOperations number of pending modifications that are sent without waiting for the flush delay. Default 1000.
+		 */
+		public Builder maxPendingOperations(final int maxPendingOperations) {
+			Validate.isTrue(maxPendingOperations > 0, "Maximum pending operations must be positive");
+			this.maxPendingOperations = maxPendingOperations;
+			return this;
+		}
+
+		/**
+		 * @param api API used for requests
+		 */
+		public MutationQueue build(final NamelessAPI api) {
+			return new MutationQueue(Objects.requireNonNull(api, "API is null"), this);
+		}
+
+	}
+
+}
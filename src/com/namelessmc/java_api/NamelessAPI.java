@@ -1,17 +1,22 @@
 package com.namelessmc.java_api;
 
-import java.math.BigInteger;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +34,9 @@ public final class NamelessAPI {
 	private static final String DEFAULT_USER_AGENT = "Nameless-Java-API";
 
 	private final RequestHandler requests;
+	private final AsyncNamelessAPI async;
+	private final UserCache userCache; // null if disabled
+	private final GroupRegistry groupRegistry;
 
 	@Deprecated
 	public NamelessAPI(final URL apiUrl) {
@@ -80,17 +88,83 @@ public final class NamelessAPI {
 	public NamelessAPI(final URL apiUrl, final String userAgent, final boolean debug) {
 		Objects.requireNonNull(apiUrl, "API url is null");
 		Objects.requireNonNull(userAgent, "User agent is null");
-		this.requests = new RequestHandler(apiUrl, userAgent, debug);
+		this.requests = new RequestHandler(apiUrl, userAgent, debug, new UrlConnectionTransport(), new FastJsonCodec(),
+				null, RetryPolicy.builder().build(), null, -1, new RequestListener[0]);
+		this.async = new AsyncNamelessAPI(this, NamelessApiBuilder.defaultExecutor());
+		this.userCache = null;
+		this.groupRegistry = new GroupRegistry(this.requests, this.async.getExecutor(), NamelessApiBuilder.DEFAULT_GROUP_REFRESH_INTERVAL);
 	}
 
-	NamelessAPI(final RequestHandler requests) {
+	NamelessAPI(final RequestHandler requests, final Executor executor, final UserCache userCache, final long groupRefreshInterval) {
 		this.requests = Objects.requireNonNull(requests, "Request handler is null");
+		this.async = new AsyncNamelessAPI(this, Objects.requireNonNull(executor, "Executor is null"));
+		this.userCache = userCache;
+		this.groupRegistry = new GroupRegistry(requests, executor, groupRefreshInterval);
 	}
 
 	RequestHandler getRequestHandler() {
 		return this.requests;
 	}
 
+	/**
+	 * @return Non-blocking view of this API, running requests on the executor configured in {@link NamelessApiBuilder#executor(Executor)}
+	 */
+	public AsyncNamelessAPI async() {
+		return this.async;
+	}
+
+	/**
+	 * @return User cache configured using {@link NamelessApiBuilder#userCache(UserCache)}, empty if users are not cached
+	 */
+	public Optional<UserCache> getUserCache() {
+		return Optional.ofNullable(this.userCache);
+	}
+
+	/**
+	 * @return Registry answering group lookups from memory, and providing the group instances shared by all users
+	 */
+	public GroupRegistry getGroupRegistry() {
+		return this.groupRegistry;
+	}
+
+	/**
+	 * @return Number of GET requests that were not sent, because an identical request was already in progress
+	 * @see RequestHandler#get(Action, Object...)
+	 */
+	public long getCollapsedRequests() {
+		return this.requests.getCollapsedRequests();
+	}
+
+	/**
+	 * @return Request limiter configured using {@link NamelessApiBuilder#limiter(RequestLimiter)}, empty if requests are not limited
+	 */
+	public Optional<RequestLimiter> getLimiter() {
+		return this.requests.getLimiter();
+	}
+
+	/**
+	 * @return Circuit breaker configured using {@link NamelessApiBuilder#circuitBreaker(CircuitBreaker)}, empty if not used
+	 */
+	public Optional<CircuitBreaker> getCircuitBreaker() {
+		return this.requests.getCircuitBreaker();
+	}
+
+	/**
+	 * @return Number of requests sent again after a failed attempt
+	 * @see RetryPolicy
+	 */
+	public long getRetries() {
+		return this.requests.getRetries();
+	}
+
+	/**
+	 * @return Sizes of request and response bodies before and after compression
+	 * @see NamelessApiBuilder#compressRequests(int)
+	 */
+	public RequestHandler.TransferStatistics getTransferStatistics() {
+		return this.requests.getTransferStatistics();
+	}
+
 	public URL getApiUrl() {
 		return this.getRequestHandler().getApiUrl();
 	}
@@ -161,39 +235,80 @@ public final class NamelessAPI {
 		this.requests.post(Action.SERVER_INFO, jsonData);
 	}
 
+	/**
+	 * Send the in-game groups of players to the website, for syncing them to website groups. All players are
+	 * sent in one request, see {@link IngameRankSync} for large numbers of players. Sent as:
+	 *
+	 * <pre>{"server_id": 1, "players": {"&lt;uuid without dashes&gt;": {"groups": ["vip", "default"]}}}</pre>
+	 *
+	 * @param serverId website id of this Minecraft server
+	 * @param ranks    in-game groups of each player, primary group first
+	 * @throws NamelessException if the request failed
+	 */
+	public void submitIngameRanks(final int serverId, final Map<UUID, List<String>> ranks) throws NamelessException {
+		Objects.requireNonNull(ranks, "Ranks map is null");
+		final JsonObject players = new JsonObject();
+		ranks.forEach((uuid, groups) -> {
+			final JsonArray groupsJson = new JsonArray();
+			groups.forEach(groupsJson::add);
+			final JsonObject player = new JsonObject();
+			player.add("groups", groupsJson);
+			players.add(uuid.toString().replace("-", ""), player);
+		});
+		final JsonObject json = new JsonObject();
+		json.addProperty("server_id", serverId);
+		json.add("players", players);
+		this.requests.post(Action.INGAME_RANKS, json);
+	}
+
 	public Website getWebsite() throws NamelessException {
 		final JsonObject json = this.requests.get(Action.INFO);
 		return new Website(json);
 	}
 
 	public List<NamelessUser> getRegisteredUsers(final UserFilter<?>... filters) throws NamelessException {
-		final List<Object> parameters = new ArrayList<>();
-		for (final UserFilter<?> filter : filters) {
-			parameters.add(filter.getName());
-			parameters.add(filter.getValue().toString());
-		}
-		final JsonObject response = this.requests.get(Action.LIST_USERS, parameters.toArray());
-		final JsonArray array = response.getAsJsonArray("users");
-		final List<NamelessUser> users = new ArrayList<>(array.size());
-		for (final JsonElement e : array) {
-			final JsonObject o = e.getAsJsonObject();
-			final int id = o.get("id").getAsInt();
-			final String username = o.get("username").getAsString();
-			final Optional<UUID> uuid;
-			if (o.has("uuid")) {
-				final String uuidString = o.get("uuid").getAsString();
-				if (uuidString == null || uuidString.equals("none") || uuidString.equals("")) {
-					uuid = Optional.empty();
-				} else {
-					uuid = Optional.of(NamelessAPI.websiteUuidToJavaUuid(uuidString));
-				}
-			} else {
-				uuid = Optional.empty();
-			}
-			users.add(new NamelessUser(this, id, username, uuid, -1L));
+		try (Stream<NamelessUser> users = streamRegisteredUsers(filters)) {
+			return Collections.unmodifiableList(users.collect(Collectors.toList()));
+		} catch (final UncheckedNamelessException e) {
+			throw e.getCause();
 		}
+	}
+
+	/**
+	 * Same as {@link #getRegisteredUsers(UserFilter...)}, but users are read from the website response while
+	 * the stream is consumed, instead of loading the entire user list in memory first. The stream holds an
+	 * open connection, so close it (for example using try-with-resources) if it is not fully consumed.
+	 * Errors while consuming the stream are thrown as {@link UncheckedNamelessException}.
+	 *
+	 * @param filters user filters
+	 * @return Stream of users with id, username and uuid known
+	 * @throws NamelessException if the request failed
+	 */
+	public Stream<NamelessUser> streamRegisteredUsers(final UserFilter<?>... filters) throws NamelessException {
+		final UserListIterator iterator = listUsers(filters);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(iterator::close);
+	}
+
+	/**
+	 * Load the user list into a compact directory for fast lookups by id, UUID and username. Use this instead
+	 * of {@link #getRegisteredUsers(UserFilter...)} when keeping a large user list in memory.
+	 *
+	 * @param filters user filters
+	 * @return Directory with id, username and UUID of all users
+	 * @throws NamelessException if the request failed
+	 */
+	public UserDirectory getUserDirectory(final UserFilter<?>... filters) throws NamelessException {
+		return UserDirectory.load(this, listUsers(filters));
+	}
 
-		return Collections.unmodifiableList(users);
+	UserListIterator listUsers(final UserFilter<?>... filters) throws NamelessException {
+		final Object[] parameters = new Object[filters.length * 2];
+		for (int i = 0; i < filters.length; i++) {
+			parameters[i * 2] = filters[i].getName();
+			parameters[i * 2 + 1] = filters[i].getValue().toString();
+		}
+		return new UserListIterator(this, this.requests.getStreaming(Action.LIST_USERS, parameters));
 	}
 
 	public Optional<NamelessUser> getUser(final int id) throws NamelessException {
@@ -232,6 +347,59 @@ public final class NamelessAPI {
 		}
 	}
 
+	/**
+	 * Look up many users at once. Large batches are resolved using a single request listing all users,
+	 * smaller batches using parallel requests. Users found by listing have their id, username and uuid
+	 * loaded, other information is loaded when it is first used.
+	 *
+	 * @param ids NamelessMC user ids
+	 * @return Map with a user for each id, or an empty optional if the user does not exist. The map iterates in the order of the provided ids.
+	 * @throws NamelessException
+	 */
+	public Map<Integer, Optional<NamelessUser>> getUsersById(final Collection<Integer> ids) throws NamelessException {
+		return new UserBatchLoader<Integer>(this, id -> new NamelessUser(this, id, null, null, -1L),
+				NamelessUser::getId,
+				Function.identity()).load(ids);
+	}
+
+	/**
+	 * Look up many users at once, see {@link #getUsersById(Collection)}. Usernames are matched case insensitively.
+	 *
+	 * @param usernames NamelessMC usernames
+	 * @return Map with a user for each username, or an empty optional if the user does not exist
+	 * @throws NamelessException
+	 */
+	public Map<String, Optional<NamelessUser>> getUsersByUsername(final Collection<String> usernames) throws NamelessException {
+		return new UserBatchLoader<String>(this, username -> new NamelessUser(this, -1, username, null, -1L),
+				user -> user.getUsername().toLowerCase(Locale.ROOT),
+				username -> username.toLowerCase(Locale.ROOT)).load(usernames);
+	}
+
+	/**
+	 * Look up many users at once, see {@link #getUsersById(Collection)}.
+	 *
+	 * @param uuids Minecraft UUIDs
+	 * @return Map with a user for each UUID, or an empty optional if no user has this UUID
+	 * @throws NamelessException
+	 */
+	public Map<UUID, Optional<NamelessUser>> getUsersByUuid(final Collection<UUID> uuids) throws NamelessException {
+		return new UserBatchLoader<UUID>(this, uuid -> new NamelessUser(this, -1, null, Optional.of(uuid), -1L),
+				user -> user.getUniqueId().orElse(null),
+				Function.identity()).load(uuids);
+	}
+
+	/**
+	 * Look up many users at once. Discord ids are not included in the user list, so users are always
+	 * resolved using parallel requests, of which all information is loaded.
+	 *
+	 * @param discordIds Discord user ids
+	 * @return Map with a user for each Discord id, or an empty optional if no user has linked this Discord account
+	 * @throws NamelessException
+	 */
+	public Map<Long, Optional<NamelessUser>> getUsersByDiscordId(final Collection<Long> discordIds) throws NamelessException {
+		return new UserBatchLoader<Long>(this, discordId -> new NamelessUser(this, -1, null, null, discordId), null, Function.identity()).load(discordIds);
+	}
+
 	/**
 	 * Construct a NamelessUser object without making API requests (so without checking if the user exists)
 	 * @param id NamelessMC user id
@@ -304,7 +472,7 @@ public final class NamelessAPI {
 		if (array.size() == 0) {
 			return Optional.empty();
 		} else {
-			return Optional.of(new Group(response.getAsJsonObject("group")));
+			return Optional.of(this.groupRegistry.intern(response.getAsJsonObject("group")));
 		}
 	}
 
@@ -321,14 +489,14 @@ public final class NamelessAPI {
 	}
 
 	/**
-	 * Get a list of all groups on the website
+	 * Get a list of all groups on the website. Use {@link #getGroupRegistry()} to avoid making a request every time.
 	 * @return list of groups
 	 * @throws NamelessException
 	 */
 	public List<Group> getAllGroups() throws NamelessException {
 		final JsonObject response = this.requests.get(Action.GROUP_INFO);
-		return groupListFromJsonArray(response.getAsJsonArray("groups"));
-
+		// The group registry may as well use this fresh group list
+		return new ArrayList<>(this.groupRegistry.update(response.getAsJsonArray("groups")));
 	}
 
 	public int[] getAllGroupIds() throws NamelessException {
@@ -342,7 +510,7 @@ public final class NamelessAPI {
 	private List<Group> groupListFromJsonArray(final JsonArray array) {
 		return StreamSupport.stream(array.spliterator(), false)
 				.map(JsonElement::getAsJsonObject)
-				.map(Group::new)
+				.map(this.groupRegistry::intern)
 				.collect(Collectors.toList());
 	}
 
@@ -501,14 +669,22 @@ public final class NamelessAPI {
 	static UUID websiteUuidToJavaUuid(final String uuid) {
 		Objects.requireNonNull(uuid, "UUID string is null");
 		// Website sends UUIDs without dashses, so we can't use UUID#fromString
-		// https://stackoverflow.com/a/30760478
-		try {
-			final BigInteger a = new BigInteger(uuid.substring(0, 16), 16);
-			final BigInteger b = new BigInteger(uuid.substring(16, 32), 16);
-			return new UUID(a.longValue(), b.longValue());
-		} catch (final IndexOutOfBoundsException e) {
-			throw new IllegalArgumentException("Invalid uuid: '" + uuid + "'", e);
+		if (uuid.length() < 32) {
+			throw new IllegalArgumentException("Invalid uuid: '" + uuid + "'");
+		}
+		return new UUID(parseHexLong(uuid, 0), parseHexLong(uuid, 16));
+	}
+
+	static long parseHexLong(final String uuid, final int offset) {
+		long value = 0;
+		for (int i = offset; i < offset + 16; i++) {
+			final int digit = Character.digit(uuid.charAt(i), 16);
+			if (digit == -1) {
+				throw new IllegalArgumentException("Invalid uuid: '" + uuid + "'");
+			}
+			value = (value << 4) | digit;
 		}
+		return value;
 	}
 
 	public static NamelessApiBuilder builder() {
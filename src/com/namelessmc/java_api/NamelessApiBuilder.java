@@ -2,14 +2,36 @@ package com.namelessmc.java_api;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
 
 public class NamelessApiBuilder {
 
 	private static final String DEFAULT_USER_AGENT = "Nameless-Java-API";
+	private static final int DEFAULT_ASYNC_THREADS = 8;
+	static final long DEFAULT_GROUP_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(5);
 
 	private String userAgent = DEFAULT_USER_AGENT;
 	private URL apiUrl = null;
 	private boolean debug = false;
+	private Executor executor = null;
+	private HttpTransport transport = null;
+	private JsonCodec codec = null;
+	private UserCache userCache = null;
+	private RequestLimiter limiter = null;
+	private RetryPolicy retryPolicy = null;
+	private CircuitBreaker circuitBreaker = null;
+	private int requestCompressionThreshold = -1;
+	private final List<RequestListener> listeners = new ArrayList<>();
+	private long groupRefreshInterval = DEFAULT_GROUP_REFRESH_INTERVAL;
 
 	NamelessApiBuilder() {
 	}
@@ -47,12 +69,141 @@ public class NamelessApiBuilder {
 		return this;
 	}
 
+	/**
+	 * Executor used to run requests made through {@link NamelessAPI#async()}. For example, a plugin
+	 * could pass the async scheduler of the server platform here. By default, a small pool of daemon
+	 * threads is used, so requests are queued instead of each occupying their own thread.
+	 *
+	 * @param executor executor to run API requests on
+	 */
+	public NamelessApiBuilder executor(final Executor executor) {
+		this.executor = Objects.requireNonNull(executor, "Executor is null");
+		return this;
+	}
+
+	/**
+	 * Transport used to send HTTP requests. Defaults to {@link UrlConnectionTransport}. Use
+	 * {@link PooledHttpTransport} to keep a limited number of connections alive for reuse.
+	 *
+	 * @param transport transport to send requests with
+	 */
+	public NamelessApiBuilder transport(final HttpTransport transport) {
+		this.transport = Objects.requireNonNull(transport, "Transport is null");
+		return this;
+	}
+
+	/**
+	 * Codec used to decode responses and encode request bodies. Defaults to {@link FastJsonCodec}.
+	 * Use {@link GsonJsonCodec} if the website sends JSON that only Gson's lenient parser accepts.
+	 *
+	 * @param codec JSON codec
+	 */
+	public NamelessApiBuilder codec(final JsonCodec codec) {
+		this.codec = Objects.requireNonNull(codec, "Codec is null");
+		return this;
+	}
+
+	/**
+	 * Cache user information for all users loaded through the API, so looking up the same user again
+	 * does not need an API request. Users are not cached by default.
+	 *
+	 * @param userCache user cache, for example {@code UserCache.builder().expireAfterWrite(30000).build()}
+	 */
+	public NamelessApiBuilder userCache(final UserCache userCache) {
+		this.userCache = Objects.requireNonNull(userCache, "User cache is null");
+		return this;
+	}
+
+	/**
+	 * Limit the rate and concurrency of requests sent to the website. Requests are not limited by default.
+	 *
+	 * @param limiter request limiter, for example {@code RequestLimiter.builder().globalRate(5, 10).build()}
+	 */
+	public NamelessApiBuilder limiter(final RequestLimiter limiter) {
+		this.limiter = Objects.requireNonNull(limiter, "Limiter is null");
+		return this;
+	}
+
+	/**
+	 * Policy for sending failed requests again. By default, GET requests are sent up to 3 times
+	 * and POST requests are not retried. Use {@link RetryPolicy#none()} to disable retries.
+	 *
+	 * @param retryPolicy retry policy
+	 */
+	public NamelessApiBuilder retryPolicy(final RetryPolicy retryPolicy) {
+		this.retryPolicy = Objects.requireNonNull(retryPolicy, "Retry policy is null");
+		return this;
+	}
+
+	/**
+	 * Fail requests right away while the website is down, instead of waiting for timeouts. Not used by default.
+	 *
+	 * @param circuitBreaker circuit breaker, for example {@code CircuitBreaker.builder().openDuration(10000).build()}
+	 */
+	public NamelessApiBuilder circuitBreaker(final CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = Objects.requireNonNull(circuitBreaker, "Circuit breaker is null");
+		return this;
+	}
+
+	/**
+	 * Compress request bodies of at least the given size using gzip. Only enable this if the web server
+	 * decompresses request bodies, for example Apache with {@code SetInputFilter DEFLATE}. If the web server
+	 * rejects a compressed body with status code 415, the request is sent again uncompressed and compression
+	 * is disabled. A website that ignores the compression responds with an API error instead, which is thrown.
+	 * Request bodies are not compressed by default. Responses are always decompressed if the website compresses them.
+	 *
+	 * @param minSize minimum size in bytes of the encoded JSON body, for example 4096
+	 */
+	public NamelessApiBuilder compressRequests(final int minSize) {
+		Validate.isTrue(minSize >= 0, "Minimum size must not be negative");
+		this.requestCompressionThreshold = minSize;
+		return this;
+	}
+
+	/**
+	 * Add a listener that is called for every request, for example a {@link MetricsRecorder}
+	 *
+	 * @param listener request listener
+	 */
+	public NamelessApiBuilder listener(final RequestListener listener) {
+		this.listeners.add(Objects.requireNonNull(listener, "Listener is null"));
+		return this;
+	}
+
+	/**
+	 * @param groupRefreshInterval time in milliseconds after which {@link GroupRegistry} reloads the group list. Default 5 minutes.
+	 */
+	public NamelessApiBuilder groupRefreshInterval(final long groupRefreshInterval) {
+		Validate.isTrue(groupRefreshInterval > 0, "Group refresh interval must be positive");
+		this.groupRefreshInterval = groupRefreshInterval;
+		return this;
+	}
+
 	public NamelessAPI build() {
 		if (this.apiUrl == null) {
 			throw new IllegalStateException("No API URL specified");
 		}
 
-		return new NamelessAPI(new RequestHandler(this.apiUrl, this.userAgent, this.debug));
+		final Executor executor = this.executor != null ? this.executor : defaultExecutor();
+		final HttpTransport transport = this.transport != null ? this.transport : new UrlConnectionTransport();
+		final JsonCodec codec = this.codec != null ? this.codec : new FastJsonCodec();
+		final RetryPolicy retryPolicy = this.retryPolicy != null ? this.retryPolicy : RetryPolicy.builder().build();
+		final RequestHandler requests = new RequestHandler(this.apiUrl, this.userAgent, this.debug, transport, codec,
+				this.limiter, retryPolicy, this.circuitBreaker, this.requestCompressionThreshold, this.listeners.toArray(new RequestListener[0]));
+		return new NamelessAPI(requests, executor, this.userCache, this.groupRefreshInterval);
+	}
+
+	static Executor defaultExecutor() {
+		final AtomicInteger threadCount = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_ASYNC_THREADS, DEFAULT_ASYNC_THREADS,
+				60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+					final Thread thread = new Thread(runnable, "Nameless-API-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		// Don't keep idle threads around for API instances that never make async requests
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 }
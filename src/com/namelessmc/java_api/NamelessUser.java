@@ -6,12 +6,11 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang3.Validate;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -28,18 +27,22 @@ public final class NamelessUser {
 
 	private final NamelessAPI api;
 	private final RequestHandler requests;
+	private final UserCache cache; // null if disabled
 
-	private int id; // -1 if unknown
-	private String username; // null if unknown
-	private Optional<UUID> uuid; // null if unknown, empty if known not present
-	private Optional<Long> discordId; // null if unknown, empty if known not present
+	// Identifiers are filled in from user info once known. Concurrent writes always write the same value.
+	private volatile int id; // -1 if unknown
+	private volatile String username; // null if unknown
+	private volatile Optional<UUID> uuid; // null if unknown, empty if known not present
+	private volatile Optional<Long> discordId; // null if unknown, empty if known not present
 
-	private JsonObject userInfo;
+	private final Object loadLock = new Object();
+	private final AtomicReference<CacheState> cacheState = new AtomicReference<>(CacheState.INITIAL);
 
 	// only one of id, username, uuid, discordId has to be provided
 	NamelessUser(final NamelessAPI api, final int id, final String username, final Optional<UUID> uuid, final long discordId) {
 		this.api = api;
 		this.requests = api.getRequestHandler();
+		this.cache = api.getUserCache().orElse(null);
 
 		if (id == -1 && username == null && uuid == null && discordId == -1) {
 			throw new IllegalArgumentException("You must specify at least one of ID, uuid, username, discordId");
@@ -51,16 +54,59 @@ public final class NamelessUser {
 		this.discordId = discordId == -1 ? null : Optional.of(discordId);
 	}
 
-	private void loadUserInfo() throws NamelessException {
+	/**
+	 * Get user info, loading it if necessary. Once loaded, this method does not lock. When multiple threads
+	 * need user info at the same time, only one of them loads it and the others wait for the result.
+	 */
+	private UserSnapshot userInfo() throws NamelessException {
+		final UserSnapshot userInfo = this.cacheState.get().userInfo;
+		if (userInfo != null) {
+			return userInfo;
+		}
+
+		synchronized (this.loadLock) {
+			final CacheState state = this.cacheState.get();
+			if (state.userInfo != null) {
+				return state.userInfo;
+			}
+			final UserSnapshot loaded = loadUserInfo();
+			// Fails if the cache was invalidated while loading. The caller still gets the response it asked for,
+			// but it is not kept, so the next caller loads it again.
+			this.cacheState.compareAndSet(state, new CacheState(state.generation, loaded));
+			return loaded;
+		}
+	}
+
+	/**
+	 * @return User info if it has been loaded, otherwise null
+	 */
+	private UserSnapshot loadedUserInfo() {
+		return this.cacheState.get().userInfo;
+	}
+
+	private UserSnapshot loadUserInfo() throws NamelessException {
+		long cacheVersion = 0;
+		if (this.cache != null) {
+			cacheVersion = this.cache.getVersion();
+			final UserSnapshot cached = getCachedUserInfo();
+			if (cached != null) {
+				return cached;
+			}
+		}
+
 		final JsonObject response;
-		if (this.id != -1) {
-			response = this.requests.get(Action.USER_INFO, "id", this.id);
-		} else if (this.uuid != null && this.uuid.isPresent()) {
-			response = this.requests.get(Action.USER_INFO, "uuid", this.uuid.get());
-		} else if (this.username != null) {
-			response = this.requests.get(Action.USER_INFO, "username", this.username);
-		} else if (this.discordId != null && this.discordId.isPresent()) {
-			response = this.requests.get(Action.USER_INFO, "discord_id", this.discordId.get());
+		final int id = this.id;
+		final Optional<UUID> uuid = this.uuid;
+		final String username = this.username;
+		final Optional<Long> discordId = this.discordId;
+		if (id != -1) {
+			response = this.requests.get(Action.USER_INFO, "id", id);
+		} else if (uuid != null && uuid.isPresent()) {
+			response = this.requests.get(Action.USER_INFO, "uuid", uuid.get());
+		} else if (username != null) {
+			response = this.requests.get(Action.USER_INFO, "username", username);
+		} else if (discordId != null && discordId.isPresent()) {
+			response = this.requests.get(Action.USER_INFO, "discord_id", discordId.get());
 		} else {
 			throw new IllegalStateException("ID, uuid, and username not known for this player.");
 		}
@@ -69,13 +115,65 @@ public final class NamelessUser {
 			throw new UserNotExistException();
 		}
 
-		this.userInfo = response;
+		final UserSnapshot snapshot = new UserSnapshot(response, this.api.getGroupRegistry());
+		if (this.cache != null) {
+			// Not cached if the user was modified while the request was in progress
+			this.cache.put(snapshot, cacheVersion);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Load user info from the {@link UserCache}, if present
+	 *
+	 * @return true if user info is now available without making a request
+	 */
+	boolean loadFromCache() {
+		if (loadedUserInfo() != null) {
+			return true;
+		}
+		if (this.cache == null) {
+			return false;
+		}
+		synchronized (this.loadLock) {
+			final CacheState state = this.cacheState.get();
+			if (state.userInfo != null) {
+				return true;
+			}
+			final UserSnapshot cached = getCachedUserInfo();
+			return cached != null && this.cacheState.compareAndSet(state, new CacheState(state.generation, cached));
+		}
+	}
+
+	private UserSnapshot getCachedUserInfo() {
+		final int id = this.id;
+		final Optional<UUID> uuid = this.uuid;
+		final String username = this.username;
+		final Optional<Long> discordId = this.discordId;
+		if (id != -1) {
+			return this.cache.getById(id);
+		} else if (uuid != null && uuid.isPresent()) {
+			return this.cache.getByUuid(uuid.get());
+		} else if (username != null) {
+			return this.cache.getByUsername(username);
+		} else if (discordId != null && discordId.isPresent()) {
+			return this.cache.getByDiscordId(discordId.get());
+		} else {
+			return null;
+		}
 	}
 
 	public NamelessAPI getApi() {
 		return this.api;
 	}
 
+	/**
+	 * @return Non-blocking view of this user, running requests on the API's executor
+	 */
+	public AsyncNamelessUser async() {
+		return new AsyncNamelessUser(this, this.api.async().getExecutor());
+	}
+
 	/**
 	 * The API method `userInfo` is only called once to improve performance.
 	 * This means that if something changes on the website, methods that use
@@ -83,81 +181,77 @@ public final class NamelessUser {
 	 * Calling this method will invalidate the cache and require making a new
 	 * API request. It will not make a new API request immediately. Calling
 	 * this method multiple times while the cache is already cleared has no
-	 * effect.
+	 * effect. If a {@link UserCache} is configured, the user is also removed
+	 * from it.
 	 */
 	public void invalidateCache() {
-		this.userInfo = null;
+		CacheState state;
+		do {
+			state = this.cacheState.get();
+		} while (!this.cacheState.compareAndSet(state, new CacheState(state.generation + 1, null)));
+
+		if (this.cache != null) {
+			final Optional<UUID> uuid = this.uuid;
+			final Optional<Long> discordId = this.discordId;
+			final int id = this.id != -1 ? this.id : state.userInfo != null ? state.userInfo.id : -1;
+			this.cache.invalidate(id,
+					this.username,
+					uuid != null ? uuid.orElse(null) : null,
+					discordId != null ? discordId.orElse(-1L) : -1);
+		}
 	}
 
 	public int getId() throws NamelessException {
-		if (this.id == -1) {
-			this.loadUserInfo();
-			this.id = this.userInfo.get("id").getAsInt();
+		int id = this.id;
+		if (id == -1) {
+			id = userInfo().id;
+			this.id = id;
 		}
 
-		return this.id;
+		return id;
 	}
 
 	public String getUsername() throws NamelessException {
-		if (this.username == null) {
-			this.loadUserInfo();
-			this.username = this.userInfo.get("username").getAsString();
+		String username = this.username;
+		if (username == null) {
+			username = userInfo().username;
+			this.username = username;
 		}
 
-		return this.username;
+		return username;
 	}
 
 	public Optional<UUID> getUniqueId() throws NamelessException {
-		if (this.uuid == null) {
-			this.loadUserInfo();
-			if (this.userInfo.has("uuid")) {
-				final String uuidString = this.userInfo.get("uuid").getAsString();
-				if (uuidString == null ||
-						uuidString.equals("none") ||
-						uuidString.equals("")) {
-					this.uuid = Optional.empty();
-				} else {
-					this.uuid = Optional.of(NamelessAPI.websiteUuidToJavaUuid(uuidString));
-				}
-			} else {
-				this.uuid = Optional.empty();
-			}
+		Optional<UUID> uuid = this.uuid;
+		if (uuid == null) {
+			uuid = userInfo().uuid;
+			this.uuid = uuid;
 		}
 
-		return this.uuid;
+		return uuid;
 	}
 
 	public Optional<Long> getDiscordId() throws NamelessException {
-		if (this.discordId == null) {
-			this.loadUserInfo();
-			if (this.userInfo.has("discord_id")) {
-				this.discordId = Optional.of(this.userInfo.get("discord_id").getAsLong());
-			} else {
-				this.discordId = Optional.empty();
-			}
+		Optional<Long> discordId = this.discordId;
+		if (discordId == null) {
+			discordId = userInfo().discordId;
+			this.discordId = discordId;
 		}
 
-		return this.discordId;
+		return discordId;
 	}
 
 	public boolean exists() throws NamelessException {
-		if (this.userInfo == null) {
-			try {
-				loadUserInfo();
-			} catch (final UserNotExistException e) {
-				return false;
-			}
+		try {
+			userInfo();
+			return true;
+		} catch (final UserNotExistException e) {
+			return false;
 		}
-
-		return true;
 	}
 
 	public String getDisplayName() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		return this.userInfo.get("displayname").getAsString();
+		return userInfo().displayName;
 	}
 
 
@@ -166,19 +260,31 @@ public final class NamelessUser {
 	 * @throws NamelessException
 	 */
 	public Date getRegisteredDate() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
+		return new Date(userInfo().registeredTimestamp * 1000);
+	}
 
-		return new Date(this.userInfo.get("registered_timestamp").getAsLong() * 1000);
+	/**
+	 * Same as {@link #getRegisteredDate()}, without creating a date object
+	 *
+	 * @return The time the user registered on the website, in seconds since the unix epoch
+	 * @throws NamelessException
+	 */
+	public long getRegisteredTimestamp() throws NamelessException {
+		return userInfo().registeredTimestamp;
 	}
 
 	public Date getLastOnline() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
+		return new Date(userInfo().lastOnlineTimestamp * 1000);
+	}
 
-		return new Date(this.userInfo.get("last_online_timestamp").getAsLong() * 1000);
+	/**
+	 * Same as {@link #getLastOnline()}, without creating a date object
+	 *
+	 * @return The time the user was last online, in seconds since the unix epoch
+	 * @throws NamelessException
+	 */
+	public long getLastOnlineTimestamp() throws NamelessException {
+		return userInfo().lastOnlineTimestamp;
 	}
 
 	/**
@@ -186,33 +292,19 @@ public final class NamelessUser {
 	 * @throws NamelessException
 	 */
 	public boolean isBanned() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		return this.userInfo.get("banned").getAsBoolean();
+		return userInfo().banned;
 	}
 
 	public boolean isVerified() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		return this.userInfo.get("validated").getAsBoolean();
+		return userInfo().verified;
 	}
 
 	public String getLangage() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		return this.userInfo.get("language").getAsString();
+		return userInfo().language;
 	}
 
 	public VerificationInfo getVerificationInfo() throws NamelessException {
-		final boolean verified = isVerified();
-		final JsonObject verification = this.userInfo.getAsJsonObject("verification");
-		return new VerificationInfo(verified, verification);
+		return userInfo().verificationInfo;
 	}
 
 	/**
@@ -220,91 +312,66 @@ public final class NamelessUser {
 	 * @throws NamelessException
 	 */
 	public boolean isStaff() throws NamelessException {
-		for (final Group group : this.getGroups()) {
-			if (group.isStaff()) {
-				return true;
-			}
-		}
-		return false;
+		return userInfo().staff;
 	}
 
 	/**
-	 * @return List of the user's groups, sorted from low order to high order.
+	 * @return Unmodifiable list of the user's groups, sorted from low order to high order. The groups are shared instances, see {@link GroupRegistry}.
 	 * @throws NamelessException
 	 */
 	public List<Group> getGroups() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		return StreamSupport.stream(this.userInfo.getAsJsonArray("groups").spliterator(), false)
-				.map(JsonElement::getAsJsonObject)
-				.map(Group::new)
-				.sorted()
-				.collect(Collectors.toList());
+		return userInfo().groups;
 	}
 
 	/**
-	 * Same as doing {@link #getGroups()}.get(0), but with better performance
-	 * since it doesn't need to create and sort a list of group objects.
+	 * Same as doing {@link #getGroups()}.get(0), but without getting an
+	 * exception if the user is not in any groups.
 	 * Empty if the user is not in any groups.
 	 *
 	 * @return Player's group with lowest order
 	 * @throws NamelessException
 	 */
 	public Optional<Group> getPrimaryGroup() throws NamelessException {
-		if (this.userInfo == null) {
-			this.loadUserInfo();
-		}
-
-		final JsonArray groups = this.userInfo.getAsJsonArray("groups");
-		if (groups.size() > 0) {
-			return Optional.of(new Group(groups.get(0).getAsJsonObject()));
-		} else {
-			return Optional.empty();
-		}
+		return userInfo().primaryGroup;
 	}
 
 	public void addGroups(final Group... groups) throws NamelessException {
-		final JsonObject post = new JsonObject();
-		post.addProperty("user", this.getId());
-		post.add("groups", groupsToJsonArray(groups));
-		this.requests.post(Action.ADD_GROUPS, post);
+		postGroups(this.requests, Action.ADD_GROUPS, this.getId(), groupIds(groups));
 		invalidateCache(); // Groups modified, invalidate cache
 	}
 
 	public void removeGroups(final Group... groups) throws NamelessException {
-		final JsonObject post = new JsonObject();
-		post.addProperty("user", this.getId());
-		post.add("groups", groupsToJsonArray(groups));
-		this.requests.post(Action.REMOVE_GROUPS, post);
+		postGroups(this.requests, Action.REMOVE_GROUPS, this.getId(), groupIds(groups));
 		invalidateCache(); // Groups modified, invalidate cache
 	}
 
-	private JsonArray groupsToJsonArray(final Group[] groups) {
-		final JsonArray array = new JsonArray();
-		for (final Group group : groups) {
-			array.add(group.getId());
+	static int[] groupIds(final Group[] groups) {
+		final int[] ids = new int[groups.length];
+		for (int i = 0; i < groups.length; i++) {
+			ids[i] = groups[i].getId();
+		}
+		return ids;
+	}
+
+	static void postGroups(final RequestHandler requests, final Action action, final int userId, final int[] groupIds) throws NamelessException {
+		final JsonArray groups = new JsonArray();
+		for (final int groupId : groupIds) {
+			groups.add(groupId);
 		}
-		return array;
+		final JsonObject post = new JsonObject();
+		post.addProperty("user", userId);
+		post.add("groups", groups);
+		requests.post(action, post);
 	}
 
 	public int getNotificationCount() throws NamelessException {
-		final JsonObject response = this.requests.get(Action.GET_NOTIFICATIONS, "user", this.getId());
-		return response.getAsJsonArray("notifications").size();
+		return NotificationListReader.read(this.requests.get(Action.GET_NOTIFICATIONS, "user", this.getId()), null);
 	}
 
 	public List<Notification> getNotifications() throws NamelessException {
-		final JsonObject response = this.requests.get(Action.GET_NOTIFICATIONS, "user", this.getId());
-
 		final List<Notification> notifications = new ArrayList<>();
-		response.getAsJsonArray("notifications").forEach((element) -> {
-			final String message = element.getAsJsonObject().get("message").getAsString();
-			final String url = element.getAsJsonObject().get("url").getAsString();
-			final NotificationType type = NotificationType.fromString(element.getAsJsonObject().get("type").getAsString());
-			notifications.add(new Notification(message, url, type));
-		});
-
+		NotificationListReader.read(this.requests.get(Action.GET_NOTIFICATIONS, "user", this.getId()),
+				(message, url, type) -> notifications.add(new Notification(message, url, NotificationType.fromString(type))));
 		return notifications;
 	}
 
@@ -359,7 +426,7 @@ public final class NamelessUser {
 		post.addProperty("code", code);
 		try {
 			this.requests.post(Action.VERIFY_MINECRAFT, post);
-			this.userInfo = null;
+			invalidateCache();
 		} catch (final ApiError e) {
 			switch (e.getError()) {
 				case ApiError.INVALID_VALIDATE_CODE:
@@ -379,24 +446,44 @@ public final class NamelessUser {
 	}
 
 	public void setDiscordRoles(final long[] roleIds) throws NamelessException {
-		final JsonObject post = new JsonObject();
-		post.addProperty("user", this.getId());
-		post.add("roles", new Gson().toJsonTree(roleIds));
-		this.requests.post(Action.SET_DISCORD_ROLES, post);
+		postDiscordRoles(this.requests, Action.SET_DISCORD_ROLES, this.getId(), roleIds);
 	}
 
 	public void addDiscordRoles(final long... roleIds) throws NamelessException {
-		final JsonObject post = new JsonObject();
-		post.addProperty("user", this.getId());
-		post.add("roles", new Gson().toJsonTree(roleIds));
-		this.requests.post(Action.ADD_DISCORD_ROLES, post);
+		postDiscordRoles(this.requests, Action.ADD_DISCORD_ROLES, this.getId(), roleIds);
 	}
 
 	public void removeDiscordRoles(final long... roleIds) throws NamelessException {
+		postDiscordRoles(this.requests, Action.REMOVE_DISCORD_ROLES, this.getId(), roleIds);
+	}
+
+	static void postDiscordRoles(final RequestHandler requests, final Action action, final int userId, final long[] roleIds) throws NamelessException {
+		Objects.requireNonNull(roleIds, "Role ids array is null");
+		final JsonArray roles = new JsonArray();
+		for (final long roleId : roleIds) {
+			roles.add(roleId);
+		}
 		final JsonObject post = new JsonObject();
-		post.addProperty("user", this.getId());
-		post.add("roles", new Gson().toJsonTree(roleIds));
-		this.requests.post(Action.REMOVE_DISCORD_ROLES, post);
+		post.addProperty("user", userId);
+		post.add("roles", roles);
+		requests.post(action, post);
+	}
+
+	/**
+	 * User info together with the cache generation it belongs to, replaced atomically
+	 */
+	private static class CacheState {
+
+		private static final CacheState INITIAL = new CacheState(0, null);
+
+		private final int generation;
+		private final UserSnapshot userInfo; // null if not loaded
+
+		CacheState(final int generation, final UserSnapshot userInfo) {
+			this.generation = generation;
+			this.userInfo = userInfo;
+		}
+
 	}
 
-}
\ No newline at end of file
+}
@@ -37,6 +37,9 @@ public class Notification {
 		UNKNOWN;
 
 		public static NotificationType fromString(final String string) {
+			if (string == null) {
+				return NotificationType.UNKNOWN;
+			}
 			try {
 				return NotificationType.valueOf(string.replace('-', '_').toUpperCase());
 			} catch (final IllegalArgumentException e) {
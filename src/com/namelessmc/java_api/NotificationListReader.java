@@ -0,0 +1,56 @@
+package com.namelessmc.java_api;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Reads the notifications in a `getNotifications` response
+ */
+final class NotificationListReader {
+
+	private NotificationListReader() {
+	}
+
+	/**
+	 * @param response response from {@link RequestHandler#get(RequestHandler.Action, Object...)}, not modified
+	 * @param handler  called for every notification, or null to only count notifications
+	 * @return Number of notifications
+	 */
+	static int read(final JsonObject response, final NotificationHandler handler) throws NamelessException {
+		final JsonElement notificationsElement = response.get("notifications");
+		if (notificationsElement == null || !notificationsElement.isJsonArray()) {
+			throw new NamelessException("Unexpected response from website (missing json key 'notifications')");
+		}
+
+		final JsonArray notifications = notificationsElement.getAsJsonArray();
+		if (handler != null) {
+			try {
+				for (final JsonElement element : notifications) {
+					final JsonObject notification = element.getAsJsonObject();
+					handler.notification(stringOrNull(notification, "message"), stringOrNull(notification, "url"),
+							stringOrNull(notification, "type"));
+				}
+			} catch (final RuntimeException e) {
+				throw new NamelessException("Unable to parse notifications", e);
+			}
+		}
+		return notifications.size();
+	}
+
+	private static String stringOrNull(final JsonObject object, final String key) {
+		final JsonElement element = object.get(key);
+		return element == null || element.isJsonNull() ? null : element.getAsString();
+	}
+
+	@FunctionalInterface
+	interface NotificationHandler {
+
+		/**
+		 * @param type notification type as sent by the website, see {@link Notification.NotificationType#fromString(String)}
+		 */
+		void notification(String message, String url, String type);
+
+	}
+
+}
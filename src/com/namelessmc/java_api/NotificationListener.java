@@ -0,0 +1,19 @@
+package com.namelessmc.java_api;
+
+import java.util.List;
+
+/**
+ * Receives notifications found by {@link NotificationPoller}. Called on the API's executor, possibly for
+ * multiple users at the same time, so it must be thread safe.
+ */
+@FunctionalInterface
+public interface NotificationListener {
+
+	/**
+	 * @param userId        website user id
+	 * @param notifications unread notifications that were not present in the previous poll of this user, not
+	 *                      empty. For the first poll after a user is added, these are all unread notifications.
+	 */
+	void newNotifications(int userId, List<Notification> notifications);
+
+}
@@ -0,0 +1,430 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.Validate;
+
+import com.namelessmc.java_api.Notification.NotificationType;
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Polls unread notifications of online users, so plugins don't each run their own polling loop. Add users
+ * when they join and remove them when they leave, and receive notifications that were not seen before
+ * using a {@link NotificationListener}.
+ *
+ * <p>Each online user is polled once per interval. Requests are spread over the interval instead of sent at
+ * the same time, and at most a configured number of requests are in progress at once. Requests are made on
+ * the API's executor. A user that leaves and joins again within the interval is not polled again early.</p>
+ *
+ * <p>Per user, only a 64-bit hash of each unread notification is kept, not the notifications themselves.</p>
+ */
+public final class NotificationPoller implements AutoCloseable {
+
+	private static final long MIN_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long MAX_TICK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final NamelessAPI api;
+	private final NotificationListener listener;
+	private final long intervalNanos;
+	private final int maxConcurrentRequests;
+
+	private final Map<Integer, UserState> users = new ConcurrentHashMap<>();
+	private final Object dispatchLock = new Object();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong polls = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+
+	private ScheduledExecutorService scheduler = null; // guarded by this
+	private volatile boolean closed = false;
+
+	private NotificationPoller(final NamelessAPI api, final Builder builder) {
+		this.api = api;
+		this.listener = builder.listener;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.interval);
+		this.maxConcurrentRequests = builder.maxConcurrentRequests;
+	}
+
+	/**
+	 * Start polling users, on a background thread that sends requests when they are due
+	 *
+	 * @throws IllegalStateException if the poller has already been started or has been closed
+	 */
+	public synchronized void start() {
+		if (this.closed || this.scheduler != null) {
+			throw new IllegalStateException("Poller has already been started");
+		}
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "Nameless-NotificationPoller");
+			thread.setDaemon(true);
+			return thread;
+		});
+		final long tick = Math.max(MIN_TICK_NANOS, Math.min(MAX_TICK_NANOS, this.intervalNanos / 20));
+		this.scheduler.scheduleWithFixedDelay(this::dispatch, tick, tick, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Stop polling. Requests in progress are completed, but their notifications are not delivered.
+	 */
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Start polling a user, for example when they join. Their first poll is sent at a random time within the
+	 * interval, so requests for many users joining at once (for example at startup) are spread over the interval.
+	 *
+	 * @param userId website user id, see {@link UserDirectory} to find ids without requests
+	 */
+	public void addUser(final int userId) {
+		this.users.compute(userId, (id, state) -> {
+			if (state == null) {
+				return new UserState(System.nanoTime() + ThreadLocalRandom.current().nextLong(this.intervalNanos));
+			}
+			state.online = true;
+			return state;
+		});
+	}
+
+	/**
+	 * Stop polling a user, for example when they leave
+	 */
+	public void removeUser(final int userId) {
+		final UserState state = this.users.get(userId);
+		if (state != null) {
+			// Kept until the next poll would be due, in case the user joins again
+			state.online = false;
+		}
+	}
+
+	/**
+	 * Poll exactly these users, adding and removing users as necessary
+	 *
+	 * @param userIds website user ids of online users
+	 */
+	public void setOnlineUsers(final int[] userIds) {
+		Objects.requireNonNull(userIds, "User ids array is null");
+		final int[] sorted = userIds.clone();
+		Arrays.sort(sorted);
+		for (final Map.Entry<Integer, UserState> entry : this.users.entrySet()) {
+			if (Arrays.binarySearch(sorted, entry.getKey()) < 0) {
+				entry.getValue().online = false;
+			}
+		}
+		for (final int userId : sorted) {
+			addUser(userId);
+		}
+	}
+
+	/**
+	 * Poll a user at the next opportunity instead of waiting for the interval, for example after they read
+	 * notifications on the website
+	 */
+	public void requestPoll(final int userId) {
+		final UserState state = this.users.get(userId);
+		if (state != null) {
+			state.nextPoll = System.nanoTime();
+		}
+	}
+
+	/**
+	 * @return Number of unread notifications found by the last poll, or empty if the user is not online or has
+	 * not been polled yet
+	 */
+	public OptionalInt getNotificationCount(final int userId) {
+		final UserState state = this.users.get(userId);
+		if (state == null || !state.online) {
+			return OptionalInt.empty();
+		}
+		final long[] hashes = state.hashes;
+		return hashes == null ? OptionalInt.empty() : OptionalInt.of(hashes.length);
+	}
+
+	public PollerStatistics getStatistics() {
+		int online = 0;
+		for (final UserState state : this.users.values()) {
+			if (state.online) {
+				online++;
+			}
+		}
+		return new PollerStatistics(online, this.polls.get(), this.failures.get(), this.delivered.get());
+	}
+
+	/**
+	 * Send requests for users that are due, as long as fewer than the maximum number of requests are in progress.
+	 * Called periodically, and when a request completes.
+	 */
+	void dispatch() {
+		if (this.closed) {
+			return;
+		}
+
+		synchronized (this.dispatchLock) {
+			final Executor executor = this.api.async().getExecutor();
+			final long now = System.nanoTime();
+			for (final Map.Entry<Integer, UserState> entry : this.users.entrySet()) {
+				final int userId = entry.getKey();
+				final UserState state = entry.getValue();
+				if (state.polling || now - state.nextPoll < 0) {
+					continue;
+				}
+
+				if (!state.online) {
+					// Not removed if the user joined again in the meantime
+					this.users.computeIfPresent(userId, (id, current) -> current == state && !current.online ? null : current);
+					continue;
+				}
+
+				if (this.inFlight.get() >= this.maxConcurrentRequests) {
+					return;
+				}
+
+				state.polling = true;
+				this.inFlight.incrementAndGet();
+				try {
+					executor.execute(() -> poll(userId, state));
+				} catch (final RejectedExecutionException e) {
+					state.polling = false;
+					this.inFlight.decrementAndGet();
+					return;
+				}
+			}
+		}
+	}
+
+	private void poll(final int userId, final UserState state) {
+		try {
+			final PollResult result = new PollResult(state.hashes);
+			NotificationListReader.read(this.api.getRequestHandler().get(Action.GET_NOTIFICATIONS, "user", userId), result);
+			this.polls.incrementAndGet();
+			state.hashes = result.sortedHashes();
+
+			if (!result.added.isEmpty() && !this.closed && state.online && this.users.get(userId) == state) {
+				this.delivered.addAndGet(result.added.size());
+				this.listener.newNotifications(userId, Collections.unmodifiableList(result.added));
+			}
+		} catch (final NamelessException e) {
+			// Tried again after the interval
+			this.failures.incrementAndGet();
+		} finally {
+			state.nextPoll = System.nanoTime() + this.intervalNanos;
+			state.polling = false;
+			this.inFlight.decrementAndGet();
+			dispatch();
+		}
+	}
+
+	static long hash(final String message, final String url, final String type) {
+		long hash = 0xCBF29CE484222325L; // FNV-1a
+		hash = hash(hash, message);
+		hash = hash(hash, url);
+		hash = hash(hash, type);
+		return hash;
+	}
+
+	private static long hash(long hash, final String string) {
+		if (string != null) {
+			for (int i = 0; i < string.length(); i++) {
+				hash = (hash ^ string.charAt(i)) * 0x100000001B3L;
+			}
+		}
+		// Separator, so moving characters between fields changes the hash
+		return (hash ^ 0xFFFF) * 0x100000001B3L;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static class UserState {
+
+		volatile boolean online = true;
+		volatile boolean polling = false;
+		volatile long nextPoll; // System.nanoTime()
+		volatile long[] hashes = null; // sorted hashes of unread notifications, null if not polled yet
+
+		UserState(final long nextPoll) {
+			this.nextPoll = nextPoll;
+		}
+
+	}
+
+	/**
+	 * Hashes the notifications in a response, and creates notification objects only for notifications that
+	 * were not present in the previous poll
+	 */
+	private static class PollResult implements NotificationListReader.NotificationHandler {
+
+		private final long[] previous; // sorted, null for the first poll
+		private final boolean[] matched;
+		private long[] hashes = new long[8];
+		private int count = 0;
+		final List<Notification> added = new ArrayList<>();
+
+		PollResult(final long[] previous) {
+			this.previous = previous;
+			this.matched = previous == null ? null : new boolean[previous.length];
+		}
+
+		@Override
+		public void notification(final String message, final String url, final String type) {
+			final long hash = hash(message, url, type);
+			if (this.count == this.hashes.length) {
+				this.hashes = Arrays.copyOf(this.hashes, this.count * 2);
+			}
+			this.hashes[this.count++] = hash;
+			if (!matchPrevious(hash)) {
+				this.added.add(new Notification(message, url, NotificationType.fromString(type)));
+			}
+		}
+
+		/**
+		 * Find an unmatched equal hash in the previous poll. Identical notifications are matched one to one,
+		 * so a second identical notification is still new.
+		 */
+		private boolean matchPrevious(final long hash) {
+			if (this.previous == null) {
+				return false;
+			}
+			int i = Arrays.binarySearch(this.previous, hash);
+			if (i < 0) {
+				return false;
+			}
+			while (i > 0 && this.previous[i - 1] == hash) {
+				i--;
+			}
+			for (; i < this.previous.length && this.previous[i] == hash; i++) {
+				if (!this.matched[i]) {
+					this.matched[i] = true;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		long[] sortedHashes() {
+			final long[] sorted = Arrays.copyOf(this.hashes, this.count);
+			Arrays.sort(sorted);
+			return sorted;
+		}
+
+	}
+
+	public static class PollerStatistics {
+
+		private final int users;
+		private final long polls;
+		private final long failures;
+		private final long notifications;
+
+		PollerStatistics(final int users, final long polls, final long failures, final long notifications) {
+			this.users = users;
+			this.polls = polls;
+			this.failures = failures;
+			this.notifications = notifications;
+		}
+
+		/**
+		 * @return Number of online users being polled
+		 */
+		public int getUsers() {
+			return this.users;
+		}
+
+		/**
+		 * @return Number of successful polls
+		 */
+		public long getPolls() {
+			return this.polls;
+		}
+
+		/**
+		 * @return Number of polls that failed, for example because the website could not be reached
+		 */
+		public long getFailures() {
+			return this.failures;
+		}
+
+		/**
+		 * @return Number of notifications delivered to the listener
+		 */
+		public long getNotifications() {
+			return this.notifications;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PollerStatistics[users=%s, polls=%s, failures=%s, notifications=%s]",
+					this.users, this.polls, this.failures, this.notifications);
+		}
+
+	}
+
+	public static class Builder {
+
+		private NotificationListener listener = null;
+		private long interval = 60000;
+		private int maxConcurrentRequests = 4;
+
+		Builder() {
+		}
+
+		/**
+		 * @param listener listener receiving new notifications. Required.
+		 */
+		public Builder listener(final NotificationListener listener) {
+			this.listener = Objects.requireNonNull(listener, "Listener is null");
+			return this;
+		}
+
+		/**
+		 * @param interval time in milliseconds between polls of the same user. Default 1 minute.
+		 */
+		public Builder interval(final long interval) {
+			Validate.isTrue(interval > 0, "Interval must be positive");
+			this.interval = interval;
+			return this;
+		}
+
+		/**
+		 * @param maxConcurrentRequests maximum number of notification requests in progress at the same time. Default 4.
+		 */
+		public Builder maxConcurrentRequests(final int maxConcurrentRequests) {
+			Validate.isTrue(maxConcurrentRequests > 0, "Maximum concurrent requests must be positive");
+			this.maxConcurrentRequests = maxConcurrentRequests;
+			return this;
+		}
+
+		/**
+		 * @param api API used for requests. Call {@link NotificationPoller#start()} to start polling.
+		 */
+		public NotificationPoller build(final NamelessAPI api) {
+			Objects.requireNonNull(api, "API is null");
+			if (this.listener == null) {
+				throw new IllegalStateException("No listener specified");
+			}
+			return new NotificationPoller(api, this);
+		}
+
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.namelessmc.java_api;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs numbered tasks, usually API requests, on the calling thread and a limited number of executor threads.
+ * Used by {@link UserBatchLoader} and {@link IngameRankSync}.
+ */
+final class ParallelTasks {
+
+	private ParallelTasks() {
+	}
+
+	/**
+	 * Run tasks 0 to count - 1 and wait until they are done. The calling thread works too, and only waits for
+	 * tasks that other threads have started. Helpers still queued when all tasks have been claimed exit
+	 * immediately, so this doesn't deadlock when called from a busy executor thread.
+	 *
+	 * @param parallelism   maximum number of tasks running at the same time, including the calling thread
+	 * @param stopOnFailure true to not start more tasks after a task failed, false to still run all tasks
+	 * @throws NamelessException the first exception thrown by a task, runtime exceptions are wrapped
+	 */
+	static void run(final Executor executor, final int parallelism, final int count, final boolean stopOnFailure,
+			final Task task) throws NamelessException {
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicInteger finished = new AtomicInteger();
+		final Object lock = new Object();
+		final NamelessException[] failure = new NamelessException[1];
+
+		final Runnable worker = () -> {
+			while (true) {
+				if (stopOnFailure) {
+					synchronized (lock) {
+						if (failure[0] != null) {
+							return;
+						}
+					}
+				}
+				final int i = next.getAndIncrement();
+				if (i >= count) {
+					return;
+				}
+				try {
+					task.run(i);
+				} catch (final NamelessException e) {
+					synchronized (lock) {
+						if (failure[0] == null) {
+							failure[0] = e;
+						}
+					}
+				} catch (final RuntimeException e) {
+					synchronized (lock) {
+						if (failure[0] == null) {
+							failure[0] = new NamelessException(e);
+						}
+					}
+				} finally {
+					finished.incrementAndGet();
+					synchronized (lock) {
+						lock.notifyAll();
+					}
+				}
+			}
+		};
+
+		final int helpers = Math.min(count, parallelism) - 1;
+		for (int i = 0; i < helpers; i++) {
+			try {
+				executor.execute(worker);
+			} catch (final RejectedExecutionException e) {
+				break;
+			}
+		}
+		worker.run();
+
+		synchronized (lock) {
+			while (finished.get() < Math.min(next.get(), count)) {
+				try {
+					lock.wait();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new NamelessException("Interrupted while waiting for requests", e);
+				}
+			}
+			if (failure[0] != null) {
+				throw failure[0];
+			}
+		}
+	}
+
+	@FunctionalInterface
+	interface Task {
+
+		/**
+		 * @param index task number, between 0 and the task count
+		 */
+		void run(int index) throws NamelessException;
+
+	}
+
+}
@@ -0,0 +1,770 @@
+package com.namelessmc.java_api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.apache.commons.lang3.Validate;
+
+import com.namelessmc.java_api.RequestHandler.RequestMethod;
+
+/**
+ * HTTP/1.1 transport that keeps connections alive and reuses them for subsequent requests,
+ * avoiding a new TCP and TLS handshake for every request. The number of connections per host
+ * is limited, requests wait for a free connection when the limit has been reached. Connections
+ * that have been idle for longer than the idle timeout are closed.
+ *
+ * <p>Unlike {@link UrlConnectionTransport}, this transport connects directly to the website. It does
+ * not use system proxy settings and does not follow redirects.</p>
+ */
+public class PooledHttpTransport implements HttpTransport, Closeable {
+
+	private static final int MAX_LINE_LENGTH = 8192;
+	private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+	private final int maxConnectionsPerHost;
+	private final long idleTimeoutNanos;
+	private final int connectTimeout;
+	private final int readTimeout;
+	private final SSLSocketFactory sslSocketFactory;
+
+	private final Map<String, HostPool> pools = new ConcurrentHashMap<>();
+	private volatile boolean closed = false;
+
+	private final AtomicLong connectionsCreated = new AtomicLong();
+	private final AtomicLong connectionsReused = new AtomicLong();
+	private final AtomicLong connectionsEvicted = new AtomicLong();
+	private final AtomicLong connectionsDiscarded = new AtomicLong();
+
+	private PooledHttpTransport(final Builder builder) {
+		this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+		this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(builder.idleTimeout);
+		this.connectTimeout = builder.connectTimeout;
+		this.readTimeout = builder.readTimeout;
+		this.sslSocketFactory = builder.sslSocketFactory != null
+				? builder.sslSocketFactory
+				: (SSLSocketFactory) SSLSocketFactory.getDefault();
+	}
+
+	@Override
+	public Response send(final Request request) throws IOException {
+		if (this.closed) {
+			throw new IOException("Transport has been closed");
+		}
+
+		final URL url = request.getUrl();
+		final boolean https;
+		if ("https".equalsIgnoreCase(url.getProtocol())) {
+			https = true;
+		} else if ("http".equalsIgnoreCase(url.getProtocol())) {
+			https = false;
+		} else {
+			throw new IOException("Unsupported protocol: " + url.getProtocol());
+		}
+		final int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+		final String key = url.getProtocol().toLowerCase(Locale.ROOT) + "://" + url.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+		final HostPool pool = this.pools.computeIfAbsent(key, k -> new HostPool(url.getHost(), port, https));
+
+		pool.acquirePermit();
+		try {
+			PooledConnection connection = pool.pollIdle();
+			if (connection != null) {
+				try {
+					return exchange(pool, connection, request);
+				} catch (final StaleConnectionException e) {
+					// The website closed the connection while it was idle, try again using a new connection
+					this.connectionsEvicted.incrementAndGet();
+				}
+			}
+			connection = pool.connect();
+			try {
+				return exchange(pool, connection, request);
+			} catch (final StaleConnectionException e) {
+				throw new EOFException("Website closed connection without sending a response");
+			}
+		} catch (final IOException | RuntimeException e) {
+			pool.releasePermit();
+			throw e;
+		}
+	}
+
+	private Response exchange(final HostPool pool, final PooledConnection connection, final Request request) throws IOException {
+		try {
+			try {
+				writeRequest(pool, connection, request);
+			} catch (final SocketException e) {
+				if (connection.reused) {
+					throw new StaleConnectionException();
+				}
+				throw e;
+			}
+			// Once the request has been written, it may have been processed even if no response is received.
+			// Only requests without side effects may then be sent again.
+			return readResponse(pool, connection, connection.reused && request.getMethod() == RequestMethod.GET);
+		} catch (final IOException | RuntimeException e) {
+			connection.closeQuietly();
+			throw e;
+		}
+	}
+
+	private void writeRequest(final HostPool pool, final PooledConnection connection, final Request request) throws IOException {
+		final URL url = request.getUrl();
+		final String path = url.getFile().isEmpty() ? "/" : url.getFile();
+		final StringBuilder head = new StringBuilder(256);
+		head.append(request.getMethod().name()).append(' ').append(path).append(" HTTP/1.1\r\n");
+		head.append("Host: ").append(pool.hostHeader).append("\r\n");
+		for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+		}
+		final byte[] body = request.getBody();
+		if (body != null) {
+			head.append("Content-Length: ").append(body.length).append("\r\n");
+		}
+		head.append("\r\n");
+
+		final OutputStream out = connection.out;
+		out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+		if (body != null) {
+			out.write(body);
+		}
+		out.flush();
+	}
+
+	/**
+	 * @param retryable whether to throw {@link StaleConnectionException} if the connection was closed before
+	 *                  the response started, so the request is sent again on a new connection
+	 */
+	private Response readResponse(final HostPool pool, final PooledConnection connection, final boolean retryable) throws IOException {
+		String statusLine = readLine(connection.in, retryable);
+		int status = parseStatusCode(statusLine);
+		Map<String, String> headers = readHeaders(connection.in);
+		while (status >= 100 && status < 200) {
+			// Skip interim responses like 100 Continue
+			statusLine = readLine(connection.in, false);
+			status = parseStatusCode(statusLine);
+			headers = readHeaders(connection.in);
+		}
+
+		final boolean http10 = statusLine.startsWith("HTTP/1.0");
+		final String connectionHeader = headers.get("Connection");
+		boolean reusable = http10
+				? "keep-alive".equalsIgnoreCase(connectionHeader)
+				: !"close".equalsIgnoreCase(connectionHeader);
+
+		final InputStream body;
+		final String transferEncoding = headers.get("Transfer-Encoding");
+		final String contentLength = headers.get("Content-Length");
+		if (status == 204 || status == 304) {
+			body = new FixedLengthInputStream(connection.in, 0);
+		} else if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+			body = new ChunkedInputStream(connection.in);
+		} else if (contentLength != null) {
+			try {
+				body = new FixedLengthInputStream(connection.in, Long.parseLong(contentLength.trim()));
+			} catch (final NumberFormatException e) {
+				throw new IOException("Invalid Content-Length: " + contentLength);
+			}
+		} else {
+			// Body ends when the website closes the connection
+			body = connection.in;
+			reusable = false;
+		}
+
+		return new PooledResponse(pool, connection, status, headers, body, reusable);
+	}
+
+	private static int parseStatusCode(final String statusLine) throws IOException {
+		// HTTP/1.1 200 OK
+		if (!statusLine.startsWith("HTTP/") || statusLine.length() < 12) {
+			throw new IOException("Invalid HTTP status line: " + statusLine);
+		}
+		try {
+			return Integer.parseInt(statusLine.substring(9, 12));
+		} catch (final NumberFormatException e) {
+			throw new IOException("Invalid HTTP status line: " + statusLine);
+		}
+	}
+
+	private static Map<String, String> readHeaders(final InputStream in) throws IOException {
+		final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		String line;
+		while (!(line = readLine(in, false)).isEmpty()) {
+			final int colon = line.indexOf(':');
+			if (colon <= 0) {
+				continue;
+			}
+			final String name = line.substring(0, colon).trim();
+			final String value = line.substring(colon + 1).trim();
+			headers.merge(name, value, (a, b) -> a + ", " + b);
+		}
+		return headers;
+	}
+
+	/**
+	 * @param stale whether EOF before the first byte means that an idle connection has been closed by the website
+	 */
+	private static String readLine(final InputStream in, final boolean stale) throws IOException {
+		final StringBuilder line = new StringBuilder();
+		int b;
+		try {
+			b = in.read();
+		} catch (final SocketException e) {
+			if (stale) {
+				throw new StaleConnectionException();
+			}
+			throw e;
+		}
+		for (; b != '\n'; b = in.read()) {
+			if (b == -1) {
+				if (stale && line.length() == 0) {
+					throw new StaleConnectionException();
+				}
+				throw new EOFException("Unexpected end of response");
+			}
+			if (line.length() >= MAX_LINE_LENGTH) {
+				throw new IOException("Response line too long");
+			}
+			if (b != '\r') {
+				line.append((char) b);
+			}
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Close connections that have been idle for longer than the idle timeout. This also happens automatically
+	 * when connections are taken from or returned to the pool, but may be called periodically to close connections
+	 * to a website that has not been contacted for a while.
+	 */
+	public void evictIdleConnections() {
+		for (final HostPool pool : this.pools.values()) {
+			pool.evictExpired(System.nanoTime());
+		}
+	}
+
+	public PoolStatistics getStatistics() {
+		int leased = 0;
+		int idle = 0;
+		for (final HostPool pool : this.pools.values()) {
+			leased += this.maxConnectionsPerHost - pool.permits.availablePermits();
+			idle += pool.idleCount();
+		}
+		return new PoolStatistics(this.connectionsCreated.get(), this.connectionsReused.get(),
+				this.connectionsEvicted.get(), this.connectionsDiscarded.get(), leased, idle, this.pools.size());
+	}
+
+	/**
+	 * Close all idle connections. Connections currently in use are closed when their response is closed.
+	 */
+	@Override
+	public void close() {
+		this.closed = true;
+		for (final HostPool pool : this.pools.values()) {
+			pool.closeIdle();
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private class HostPool {
+
+		private final String host;
+		private final int port;
+		private final boolean https;
+		private final String hostHeader;
+		private final Semaphore permits;
+		private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+		HostPool(final String host, final int port, final boolean https) {
+			this.host = host;
+			this.port = port;
+			this.https = https;
+			final int defaultPort = https ? 443 : 80;
+			this.hostHeader = port == defaultPort ? host : host + ":" + port;
+			this.permits = new Semaphore(PooledHttpTransport.this.maxConnectionsPerHost, true);
+		}
+
+		void acquirePermit() throws IOException {
+			try {
+				if (!this.permits.tryAcquire(PooledHttpTransport.this.connectTimeout, TimeUnit.MILLISECONDS)) {
+					throw new IOException("Timed out waiting for a free connection to " + this.hostHeader);
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for a free connection", e);
+			}
+		}
+
+		void releasePermit() {
+			this.permits.release();
+		}
+
+		PooledConnection pollIdle() {
+			final long now = System.nanoTime();
+			evictExpired(now);
+			final PooledConnection connection;
+			synchronized (this.idle) {
+				// Most recently used connection first, it is the least likely to have been closed by the website
+				connection = this.idle.pollFirst();
+			}
+			if (connection != null) {
+				connection.reused = true;
+				PooledHttpTransport.this.connectionsReused.incrementAndGet();
+			}
+			return connection;
+		}
+
+		PooledConnection connect() throws IOException {
+			Socket socket = new Socket();
+			try {
+				socket.setTcpNoDelay(true);
+				socket.setSoTimeout(PooledHttpTransport.this.readTimeout);
+				socket.connect(new InetSocketAddress(this.host, this.port), PooledHttpTransport.this.connectTimeout);
+				if (this.https) {
+					final SSLSocket sslSocket = (SSLSocket) PooledHttpTransport.this.sslSocketFactory.createSocket(socket, this.host, this.port, true);
+					socket = sslSocket;
+					final SSLParameters parameters = sslSocket.getSSLParameters();
+					parameters.setEndpointIdentificationAlgorithm("HTTPS");
+					sslSocket.setSSLParameters(parameters);
+					sslSocket.startHandshake();
+				}
+			} catch (final IOException e) {
+				socket.close();
+				throw e;
+			}
+			PooledHttpTransport.this.connectionsCreated.incrementAndGet();
+			return new PooledConnection(socket);
+		}
+
+		void release(final PooledConnection connection) {
+			if (PooledHttpTransport.this.closed) {
+				connection.closeQuietly();
+			} else {
+				connection.lastUsed = System.nanoTime();
+				connection.reused = false;
+				synchronized (this.idle) {
+					this.idle.addFirst(connection);
+				}
+			}
+			releasePermit();
+		}
+
+		void evictExpired(final long now) {
+			synchronized (this.idle) {
+				final Iterator<PooledConnection> iterator = this.idle.descendingIterator();
+				while (iterator.hasNext()) {
+					final PooledConnection connection = iterator.next();
+					if (now - connection.lastUsed < PooledHttpTransport.this.idleTimeoutNanos) {
+						// Connections are ordered by last use, all remaining connections are newer
+						break;
+					}
+					iterator.remove();
+					connection.closeQuietly();
+					PooledHttpTransport.this.connectionsEvicted.incrementAndGet();
+				}
+			}
+		}
+
+		int idleCount() {
+			synchronized (this.idle) {
+				return this.idle.size();
+			}
+		}
+
+		void closeIdle() {
+			synchronized (this.idle) {
+				for (final PooledConnection connection : this.idle) {
+					connection.closeQuietly();
+				}
+				this.idle.clear();
+			}
+		}
+
+	}
+
+	private static class PooledConnection {
+
+		private final Socket socket;
+		private final InputStream in;
+		private final OutputStream out;
+		private long lastUsed;
+		private boolean reused = false;
+
+		PooledConnection(final Socket socket) throws IOException {
+			this.socket = socket;
+			this.in = new BufferedInputStream(socket.getInputStream());
+			this.out = new BufferedOutputStream(socket.getOutputStream());
+		}
+
+		void closeQuietly() {
+			try {
+				this.socket.close();
+			} catch (final IOException ignored) {}
+		}
+
+	}
+
+	private class PooledResponse implements Response {
+
+		private final HostPool pool;
+		private final PooledConnection connection;
+		private final int status;
+		private final Map<String, String> headers;
+		private final InputStream body;
+		private final boolean reusable;
+		private boolean closed = false;
+
+		PooledResponse(final HostPool pool, final PooledConnection connection, final int status,
+				final Map<String, String> headers, final InputStream body, final boolean reusable) {
+			this.pool = pool;
+			this.connection = connection;
+			this.status = status;
+			this.headers = headers;
+			this.body = new FilterInputStream(body) {
+				@Override
+				public void close() throws IOException {
+					PooledResponse.this.close();
+				}
+			};
+			this.reusable = reusable;
+		}
+
+		@Override
+		public int getStatusCode() {
+			return this.status;
+		}
+
+		@Override
+		public String getHeader(final String name) {
+			return this.headers.get(name);
+		}
+
+		@Override
+		public InputStream getBody() {
+			return this.body;
+		}
+
+		@Override
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+
+			boolean reuse = this.reusable;
+			if (reuse) {
+				// The remaining body needs to be consumed before the next response can be read
+				try {
+					if (this.body.read() != -1) {
+						long drained = 1;
+						final byte[] buffer = new byte[4096];
+						int read;
+						while ((read = this.body.read(buffer)) != -1) {
+							drained += read;
+							if (drained > MAX_DRAIN_BYTES) {
+								reuse = false;
+								break;
+							}
+						}
+					}
+				} catch (final IOException e) {
+					reuse = false;
+				}
+			}
+
+			if (reuse) {
+				this.pool.release(this.connection);
+			} else {
+				this.connection.closeQuietly();
+				PooledHttpTransport.this.connectionsDiscarded.incrementAndGet();
+				this.pool.releasePermit();
+			}
+		}
+
+	}
+
+	private static class FixedLengthInputStream extends InputStream {
+
+		private final InputStream in;
+		private long remaining;
+
+		FixedLengthInputStream(final InputStream in, final long length) {
+			this.in = in;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.remaining <= 0) {
+				return -1;
+			}
+			final int b = this.in.read();
+			if (b == -1) {
+				throw new EOFException("Unexpected end of response body");
+			}
+			this.remaining--;
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (this.remaining <= 0) {
+				return -1;
+			}
+			final int read = this.in.read(b, off, (int) Math.min(len, this.remaining));
+			if (read == -1) {
+				throw new EOFException("Unexpected end of response body");
+			}
+			this.remaining -= read;
+			return read;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(this.in.available(), this.remaining);
+		}
+
+		@Override
+		public void close() {
+			// Closing is handled by the response
+		}
+
+	}
+
+	private static class ChunkedInputStream extends InputStream {
+
+		private final InputStream in;
+		private long chunkRemaining = 0;
+		private boolean eof = false;
+
+		ChunkedInputStream(final InputStream in) {
+			this.in = in;
+		}
+
+		private boolean nextChunk() throws IOException {
+			if (this.eof) {
+				return false;
+			}
+			if (this.chunkRemaining == 0) {
+				String line = readLine(this.in, false);
+				if (line.isEmpty()) {
+					// CRLF after previous chunk data
+					line = readLine(this.in, false);
+				}
+				final int extension = line.indexOf(';');
+				final String size = (extension == -1 ? line : line.substring(0, extension)).trim();
+				try {
+					this.chunkRemaining = Long.parseLong(size, 16);
+				} catch (final NumberFormatException e) {
+					throw new IOException("Invalid chunk size: " + line);
+				}
+				if (this.chunkRemaining == 0) {
+					// Skip trailers
+					while (!readLine(this.in, false).isEmpty()) {}
+					this.eof = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!nextChunk()) {
+				return -1;
+			}
+			final int b = this.in.read();
+			if (b == -1) {
+				throw new EOFException("Unexpected end of chunked response body");
+			}
+			this.chunkRemaining--;
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!nextChunk()) {
+				return -1;
+			}
+			final int read = this.in.read(b, off, (int) Math.min(len, this.chunkRemaining));
+			if (read == -1) {
+				throw new EOFException("Unexpected end of chunked response body");
+			}
+			this.chunkRemaining -= read;
+			return read;
+		}
+
+		@Override
+		public void close() {
+			// Closing is handled by the response
+		}
+
+	}
+
+	private static class StaleConnectionException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+	}
+
+	public static class PoolStatistics {
+
+		private final long created;
+		private final long reused;
+		private final long evicted;
+		private final long discarded;
+		private final int leased;
+		private final int idle;
+		private final int hosts;
+
+		PoolStatistics(final long created, final long reused, final long evicted, final long discarded,
+				final int leased, final int idle, final int hosts) {
+			this.created = created;
+			this.reused = reused;
+			this.evicted = evicted;
+			this.discarded = discarded;
+			this.leased = leased;
+			this.idle = idle;
+			this.hosts = hosts;
+		}
+
+		/**
+		 * @return Number of new connections opened
+		 */
+		public long getConnectionsCreated() {
+			return this.created;
+		}
+
+		/**
+		 * @return Number of requests sent using an existing connection
+		 */
+		public long getConnectionsReused() {
+			return this.reused;
+		}
+
+		/**
+		 * @return Number of idle connections closed because they expired or were closed by the website
+		 */
+		public long getConnectionsEvicted() {
+			return this.evicted;
+		}
+
+		/**
+		 * @return Number of connections closed after use because they could not be reused
+		 */
+		public long getConnectionsDiscarded() {
+			return this.discarded;
+		}
+
+		/**
+		 * @return Number of connections currently in use
+		 */
+		public int getLeasedConnections() {
+			return this.leased;
+		}
+
+		/**
+		 * @return Number of connections currently kept alive for reuse
+		 */
+		public int getIdleConnections() {
+			return this.idle;
+		}
+
+		public int getHosts() {
+			return this.hosts;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("PoolStatistics[created=%s, reused=%s, evicted=%s, discarded=%s, leased=%s, idle=%s, hosts=%s]",
+					this.created, this.reused, this.evicted, this.discarded, this.leased, this.idle, this.hosts);
+		}
+
+	}
+
+	public static class Builder {
+
+		private int maxConnectionsPerHost = 8;
+		private long idleTimeout = 30000;
+		private int connectTimeout = 10000;
+		private int readTimeout = 10000;
+		private SSLSocketFactory sslSocketFactory = null;
+
+		Builder() {
+		}
+
+		/**
+		 * @param maxConnectionsPerHost maximum number of connections to a single website, including idle connections
+		 */
+		public Builder maxConnectionsPerHost(final int maxConnectionsPerHost) {
+			Validate.isTrue(maxConnectionsPerHost > 0, "Maximum connections per host must be positive");
+			this.maxConnectionsPerHost = maxConnectionsPerHost;
+			return this;
+		}
+
+		/**
+		 * @param idleTimeout time in milliseconds after which unused connections are closed
+		 */
+		public Builder idleTimeout(final long idleTimeout) {
+			Validate.isTrue(idleTimeout >= 0, "Idle timeout must not be negative");
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+		/**
+		 * @param connectTimeout timeout in milliseconds for connecting, also used as the maximum time to wait for a free connection
+		 */
+		public Builder connectTimeout(final int connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * @param readTimeout read timeout in milliseconds
+		 */
+		public Builder readTimeout(final int readTimeout) {
+			this.readTimeout = readTimeout;
+			return this;
+		}
+
+		public Builder sslSocketFactory(final SSLSocketFactory sslSocketFactory) {
+			this.sslSocketFactory = sslSocketFactory;
+			return this;
+		}
+
+		public PooledHttpTransport build() {
+			return new PooledHttpTransport(this);
+		}
+
+	}
+
+}
@@ -3,160 +3,595 @@ package com.namelessmc.java_api;
 import static com.namelessmc.java_api.RequestHandler.RequestMethod.GET;
 import static com.namelessmc.java_api.RequestHandler.RequestMethod.POST;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 
 public class RequestHandler {
 
+	/**
+	 * Responses up to this size are read into a reused per-thread buffer
+	 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+	private static final ThreadLocal<byte[]> RESPONSE_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
 	private final URL baseUrl;
 	private final String userAgent;
 	private final boolean debug;
-
-	RequestHandler(final URL baseUrl, final String userAgent, final boolean debug) {
+	private final HttpTransport transport;
+	private final JsonCodec codec;
+	private final RequestLimiter limiter; // null if not limited
+	private final RequestListener[] listeners;
+	private final RetryPolicy retryPolicy;
+	private final CircuitBreaker circuitBreaker; // null if not used
+	private final String apiKey;
+	private final String[] actionUrls;
+	private final URL[] actionUrlObjects;
+	private final Map<String, String> getHeaders;
+	private final Map<String, String> postHeaders;
+	private final Map<String, String> compressedPostHeaders;
+	private final int requestCompressionThreshold; // -1 if request bodies are not compressed
+	private volatile boolean requestCompressionRejected = false;
+	private final Map<String, CompletableFuture<JsonObject>> inFlightRequests = new ConcurrentHashMap<>();
+	private final AtomicLong collapsedRequests = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong responseWireBytes = new AtomicLong();
+	private final AtomicLong responseBytes = new AtomicLong();
+	private final AtomicLong compressedResponses = new AtomicLong();
+	private final AtomicLong requestWireBytes = new AtomicLong();
+	private final AtomicLong requestBytes = new AtomicLong();
+	private final AtomicLong compressedRequests = new AtomicLong();
+
+	RequestHandler(final URL baseUrl, final String userAgent, final boolean debug, final HttpTransport transport, final JsonCodec codec,
+			final RequestLimiter limiter, final RetryPolicy retryPolicy, final CircuitBreaker circuitBreaker,
+			final int requestCompressionThreshold, final RequestListener[] listeners) {
 		this.baseUrl = baseUrl;
 		this.userAgent = userAgent;
 		this.debug = debug;
+		this.transport = transport;
+		this.codec = codec;
+		this.limiter = limiter;
+		this.retryPolicy = retryPolicy;
+		this.circuitBreaker = circuitBreaker;
+		this.requestCompressionThreshold = requestCompressionThreshold;
+		this.listeners = listeners;
+		this.apiKey = NamelessAPI.getApiKey(baseUrl.toString());
+
+		final Action[] actions = Action.values();
+		this.actionUrls = new String[actions.length];
+		this.actionUrlObjects = new URL[actions.length];
+		for (final Action action : actions) {
+			final String url = baseUrl.toString() + "/" + action;
+			this.actionUrls[action.ordinal()] = url;
+			try {
+				this.actionUrlObjects[action.ordinal()] = new URL(url);
+			} catch (final MalformedURLException e) {
+				throw new IllegalArgumentException("Invalid API URL: " + baseUrl, e);
+			}
+		}
+
+		final Map<String, String> getHeaders = new HashMap<>();
+		getHeaders.put("User-Agent", userAgent);
+		getHeaders.put("Accept-Encoding", ContentEncoding.ACCEPTED);
+		this.getHeaders = Collections.unmodifiableMap(getHeaders);
+		final Map<String, String> postHeaders = new HashMap<>(getHeaders);
+		postHeaders.put("Content-Type", "application/json");
+		this.postHeaders = Collections.unmodifiableMap(postHeaders);
+		final Map<String, String> compressedPostHeaders = new HashMap<>(postHeaders);
+		compressedPostHeaders.put("Content-Encoding", "gzip");
+		this.compressedPostHeaders = Collections.unmodifiableMap(compressedPostHeaders);
 	}
 
 	public URL getApiUrl() {
 		return this.baseUrl;
 	}
 
+	public HttpTransport getTransport() {
+		return this.transport;
+	}
+
+	public JsonCodec getCodec() {
+		return this.codec;
+	}
+
+	public Optional<RequestLimiter> getLimiter() {
+		return Optional.ofNullable(this.limiter);
+	}
+
+	public RetryPolicy getRetryPolicy() {
+		return this.retryPolicy;
+	}
+
+	public Optional<CircuitBreaker> getCircuitBreaker() {
+		return Optional.ofNullable(this.circuitBreaker);
+	}
+
 	public JsonObject post(final Action action, final JsonObject postData) throws NamelessException {
 		if (action.method != RequestMethod.POST) {
 			throw new IllegalArgumentException("Cannot POST to a GET API method");
 		}
 
-		URL url;
 		try {
-			url = new URL(this.baseUrl.toString() + "/" + action);
-		} catch (final MalformedURLException e) {
-			throw new NamelessException("Invalid URL or parameter string");
+			return makeConnection(action, this.actionUrlObjects[action.ordinal()], postData);
+		} finally {
+			// GET requests started before this modification may return outdated data, don't let new requests wait for them
+			this.inFlightRequests.clear();
+		}
+	}
+
+	/**
+	 * Make a GET request. If an identical request (same action and parameters) is already in progress on another
+	 * thread, no new request is sent. Instead, this thread waits for the other request and receives the same
+	 * response or exception. Because responses may be shared between callers, they must not be modified.
+	 */
+	public JsonObject get(final Action action, final Object... parameters) throws NamelessException {
+		if (action.method != RequestMethod.GET) {
+			throw new IllegalArgumentException("Cannot GET a POST API method");
+		}
+
+		final String urlString = getUrlString(action, parameters);
+
+		final CompletableFuture<JsonObject> future = new CompletableFuture<>();
+		final CompletableFuture<JsonObject> inFlight = this.inFlightRequests.putIfAbsent(urlString, future);
+		if (inFlight != null) {
+			this.collapsedRequests.incrementAndGet();
+			return awaitInFlight(inFlight);
 		}
 
 		try {
-			return makeConnection(url, postData);
-		} catch (final IOException e) {
-			throw new NamelessException(e);
+			final URL url = parameters.length == 0 ? this.actionUrlObjects[action.ordinal()] : toUrl(urlString);
+			final JsonObject response = makeConnection(action, url, null);
+			future.complete(response);
+			return response;
+		} catch (final NamelessException | RuntimeException | Error e) {
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.inFlightRequests.remove(urlString, future);
 		}
 	}
 
-	public JsonObject get(final Action action, final Object... parameters) throws NamelessException {
+	private static JsonObject awaitInFlight(final CompletableFuture<JsonObject> inFlight) throws NamelessException {
+		try {
+			return inFlight.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NamelessException("Interrupted while waiting for identical request", e);
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof NamelessException) {
+				throw (NamelessException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw new NamelessException(cause);
+			}
+		}
+	}
+
+	/**
+	 * @return Number of GET requests that were not sent, because they waited for an identical request already in progress
+	 */
+	public long getCollapsedRequests() {
+		return this.collapsedRequests.get();
+	}
+
+	/**
+	 * @return Number of requests sent again after a failed attempt, according to the {@link RetryPolicy}
+	 */
+	public long getRetries() {
+		return this.retries.get();
+	}
+
+	/**
+	 * @return Sizes of request and response bodies before and after compression
+	 */
+	public TransferStatistics getTransferStatistics() {
+		return new TransferStatistics(this.responseWireBytes.get(), this.responseBytes.get(), this.compressedResponses.get(),
+				this.requestWireBytes.get(), this.requestBytes.get(), this.compressedRequests.get(),
+				this.requestCompressionThreshold >= 0 && !this.requestCompressionRejected);
+	}
+
+	/**
+	 * Make a GET request without reading the response, so the caller can read a large response incrementally.
+	 * Unlike {@link #get(Action, Object...)}, the response is not checked for API errors. Failed connections and
+	 * retryable status codes are retried according to the {@link RetryPolicy} before the body is handed out, not
+	 * after the caller has started reading it. The returned response holds a connection and must be closed. The
+	 * caller reports API errors and unreadable responses using {@link StreamingResponse#failed(int)}, so listeners
+	 * receive the outcome.
+	 *
+	 * @return Response with a lenient JSON reader for the response body
+	 */
+	StreamingResponse getStreaming(final Action action, final Object... parameters) throws NamelessException {
 		if (action.method != RequestMethod.GET) {
 			throw new IllegalArgumentException("Cannot GET a POST API method");
 		}
 
-		final StringBuilder urlBuilder = new StringBuilder(this.baseUrl.toString());
-		urlBuilder.append("/");
-		urlBuilder.append(action);
+		final URL url = getUrl(action, parameters);
+		final HttpTransport.Request request = new HttpTransport.Request(url, GET, this.getHeaders, null);
+
+		if (this.debug) {
+			debug("Making streaming connection GET to url %s (response is not logged)", url);
+		}
+
+		final long startTime = requestStarted(action);
+		int lastStatusCode = RequestListener.NO_RESPONSE;
+		boolean returned = false;
+		try {
+			for (int attempt = 1; ; attempt++) {
+				final boolean probe = this.circuitBreaker != null && this.circuitBreaker.acquire();
+				final RequestLimiter.Permit permit = acquirePermit(action, probe);
+				HttpTransport.Response response = null;
+				int statusCode = RequestListener.NO_RESPONSE;
+				IOException failure = null;
+				try {
+					response = this.transport.send(request);
+					statusCode = response.getStatusCode();
+				} catch (final IOException e) {
+					closeQuietly(response);
+					response = null;
+					failure = e;
+				} catch (final RuntimeException e) {
+					closeQuietly(response);
+					requestFailed(permit, probe);
+					throw e;
+				}
+
+				if (failure == null && !RetryPolicy.isRetryableStatus(statusCode)) {
+					final StreamingResponse streamingResponse = stream(action, response, statusCode, permit, probe, startTime);
+					returned = true;
+					return streamingResponse;
+				}
+
+				// Nothing has been read from the body yet, so the request can be sent again
+				final String retryAfter = response != null ? response.getHeader("Retry-After") : null;
+				final long delay = this.retryPolicy.retryDelay(action, attempt, retryAfter);
+				if (delay < 0 && failure == null) {
+					// Out of attempts, the caller reads the error response
+					final StreamingResponse streamingResponse = stream(action, response, statusCode, permit, probe, startTime);
+					returned = true;
+					return streamingResponse;
+				}
+
+				closeQuietly(response);
+				if (permit != null) {
+					permit.release(statusCode, retryAfter);
+				}
+				if (this.circuitBreaker != null) {
+					this.circuitBreaker.record(probe, failure == null && statusCode < 500);
+				}
+				lastStatusCode = statusCode;
 
-		if (parameters.length > 0) {
-			if (parameters.length % 2 != 0) {
-				final String paramString = Arrays.stream(parameters).map(Object::toString).collect(Collectors.joining("|"));
-				throw new IllegalArgumentException(String.format("Parameter string varargs array length must be even (length is %s - %s)", parameters.length, paramString));
+				if (delay < 0) {
+					throw new NamelessException(failure);
+				}
+				if (this.debug) {
+					debug("Attempt %s failed (%s), retrying in %sms", attempt,
+							failure != null ? failure : "status code " + statusCode, TimeUnit.NANOSECONDS.toMillis(delay));
+				}
+				this.retries.incrementAndGet();
+				sleepBeforeRetry(delay);
+			}
+		} finally {
+			if (!returned) {
+				requestCompleted(action, lastStatusCode, RequestListener.NO_API_ERROR, 0, 0, startTime, false);
+			}
+		}
+	}
+
+	/**
+	 * Wrap a response to be read by the caller of {@link #getStreaming(Action, Object...)}. The permit and circuit
+	 * breaker are released when the response is closed.
+	 */
+	private StreamingResponse stream(final Action action, final HttpTransport.Response response, final int statusCode,
+			final RequestLimiter.Permit permit, final boolean probe, final long startTime) throws NamelessException {
+		final ContentEncoding.CountingInputStream wireBody;
+		final InputStream body;
+		final boolean compressed;
+		try {
+			wireBody = new ContentEncoding.CountingInputStream(response.getBody());
+			body = ContentEncoding.decode(wireBody, response.getHeader("Content-Encoding"));
+			compressed = body != wireBody;
+		} catch (final IOException e) {
+			closeQuietly(response);
+			requestFailed(permit, probe);
+			throw new NamelessException(e);
+		} catch (final RuntimeException e) {
+			closeQuietly(response);
+			requestFailed(permit, probe);
+			throw e;
+		}
+		if (permit != null) {
+			permit.responseReceived();
+		}
+		if (this.circuitBreaker != null) {
+			this.circuitBreaker.record(probe, statusCode < 500);
+		}
+		final String retryAfter = permit != null ? response.getHeader("Retry-After") : null;
+		final InputStream closingBody = new FilterInputStream(body) {
+			private long bytesRead = 0;
+			private boolean closed = false;
+
+			@Override
+			public int read() throws IOException {
+				final int b = super.read();
+				if (b != -1) {
+					this.bytesRead++;
+				}
+				return b;
 			}
 
-			for (int i = 0; i < parameters.length; i++) {
-				if (i % 2 == 0) {
-					urlBuilder.append("&");
-					urlBuilder.append(parameters[i]);
-				} else {
-					urlBuilder.append("=");
-					try {
-						urlBuilder.append(URLEncoder.encode(parameters[i].toString(), StandardCharsets.UTF_8.toString()));
-					} catch (final UnsupportedEncodingException e) {
-						throw new RuntimeException(e);
+			@Override
+			public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+				final int read = super.read(buffer, offset, length);
+				if (read > 0) {
+					this.bytesRead += read;
+				}
+				return read;
+			}
+
+			@Override
+			public void close() throws IOException {
+				if (this.closed) {
+					return;
+				}
+				this.closed = true;
+				try {
+					super.close();
+				} finally {
+					response.close();
+					if (permit != null) {
+						// The connection is in use until the body has been read
+						permit.release(statusCode, retryAfter);
 					}
+					responseRead(wireBody.getCount(), this.bytesRead, compressed);
 				}
 			}
+		};
+		final JsonReader reader = new JsonReader(new InputStreamReader(closingBody, StandardCharsets.UTF_8));
+		reader.setLenient(true);
+		return new StreamingResponse(reader, (apiError, success) ->
+				requestCompleted(action, statusCode, apiError, 0, wireBody.getCount(), startTime, success));
+	}
+
+	private static void closeQuietly(final HttpTransport.Response response) {
+		if (response != null) {
+			try {
+				response.close();
+			} catch (final IOException ignored) {}
+		}
+	}
+
+	private URL getUrl(final Action action, final Object... parameters) throws NamelessException {
+		if (parameters.length == 0) {
+			return this.actionUrlObjects[action.ordinal()];
+		}
+
+		return toUrl(getUrlString(action, parameters));
+	}
+
+	String getUrlString(final Action action, final Object... parameters) {
+		final String actionUrl = this.actionUrls[action.ordinal()];
+		if (parameters.length == 0) {
+			return actionUrl;
+		}
+
+		if (parameters.length % 2 != 0) {
+			final String paramString = Arrays.stream(parameters).map(Object::toString).collect(Collectors.joining("|"));
+			throw new IllegalArgumentException(String.format("Parameter string varargs array length must be even (length is %s - %s)", parameters.length, paramString));
+		}
+
+		final StringBuilder urlBuilder = new StringBuilder(actionUrl.length() + parameters.length * 24);
+		urlBuilder.append(actionUrl);
+
+		for (int i = 0; i < parameters.length; i += 2) {
+			urlBuilder.append('&');
+			urlBuilder.append(parameters[i]);
+			urlBuilder.append('=');
+			appendEncoded(urlBuilder, parameters[i + 1].toString());
 		}
 
-		URL url;
+		return urlBuilder.toString();
+	}
+
+	private static URL toUrl(final String url) throws NamelessException {
 		try {
-			url = new URL(urlBuilder.toString());
+			return new URL(url);
 		} catch (final MalformedURLException e) {
-			throw new NamelessException("Error while building request URL: " + urlBuilder, e);
+			throw new NamelessException("Error while building request URL: " + url, e);
 		}
+	}
 
-		try {
-			return makeConnection(url, null);
-		} catch (final IOException e) {
-			throw new NamelessException(e);
+	/**
+	 * Append URL encoded string. Parameters are usually ids or UUIDs, which don't need encoding.
+	 */
+	private static void appendEncoded(final StringBuilder builder, final String value) {
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+					|| c == '-' || c == '_' || c == '.' || c == '*')) {
+				try {
+					builder.append(URLEncoder.encode(value, StandardCharsets.UTF_8.toString()));
+				} catch (final UnsupportedEncodingException e) {
+					throw new RuntimeException(e);
+				}
+				return;
+			}
 		}
+		builder.append(value);
 	}
 
 	private void debug(final String message, final Object... args) {
 		if (this.debug) {
-			System.out.println(String.format(message, args).replace(NamelessAPI.getApiKey(this.getApiUrl().toString()), "**API_KEY_REMOVED**"));
+			System.out.println(String.format(message, args).replace(this.apiKey, "**API_KEY_REMOVED**"));
 		}
 	}
 
-	private JsonObject makeConnection(final URL url, final JsonObject postBody) throws NamelessException, IOException {
-		final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-
-		connection.setReadTimeout(10000);
-		connection.setConnectTimeout(10000);
-
-		debug("Making connection %s to url %s", postBody != null ? "POST" : "GET", url);
-
-		connection.addRequestProperty("User-Agent", this.userAgent);
-
-		debug("Using User-Agent '%s'", this.userAgent);
+	private JsonObject makeConnection(final Action action, final URL url, final JsonObject postBody) throws NamelessException {
+		if (this.debug) {
+			debug("Making connection %s to url %s", postBody != null ? "POST" : "GET", url);
+			debug("Using User-Agent '%s'", this.userAgent);
+		}
 
+		HttpTransport.Request request;
+		byte[] encodedMessage = null;
+		byte[] compressedMessage = null;
 		if (postBody != null) {
-			debug("Post body below\n-----------------\n%s\n-----------------", postBody);
-			connection.setRequestMethod("POST");
-			final byte[] encodedMessage = postBody.toString().getBytes(StandardCharsets.UTF_8);
-			connection.setRequestProperty("Content-Length", encodedMessage.length + "");
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setDoOutput(true);
-			try (OutputStream out = connection.getOutputStream()) {
-				out.write(encodedMessage);
-			}
-		}
-
-		final byte[] bytes;
-		if (connection.getResponseCode() >= 400) {
-			try (InputStream in = connection.getErrorStream()) {
-				if (in == null) {
-					throw new NamelessException("Website sent empty response with code " + connection.getResponseCode());
-				} else {
-					bytes = getBytesFromInputStream(in);
-				}
+			if (this.debug) {
+				debug("Post body below\n-----------------\n%s\n-----------------", postBody);
+			}
+			encodedMessage = this.codec.encode(postBody);
+			compressedMessage = compressRequestBody(encodedMessage);
+			if (compressedMessage != null) {
+				request = new HttpTransport.Request(url, POST, this.compressedPostHeaders, compressedMessage);
+			} else {
+				request = new HttpTransport.Request(url, POST, this.postHeaders, encodedMessage);
 			}
 		} else {
-			try (InputStream in = connection.getInputStream()) {
-				bytes = getBytesFromInputStream(in);
+			request = new HttpTransport.Request(url, GET, this.getHeaders, null);
+		}
+
+		final long startTime = requestStarted(action);
+		long requestBytes = request.getBody() != null ? request.getBody().length : 0;
+		int code = RequestListener.NO_RESPONSE;
+		int apiError = RequestListener.NO_API_ERROR;
+		long responseBytes = 0;
+		boolean success = false;
+		try {
+			ResponseBody body = sendWithRetries(action, request);
+			code = body.statusCode;
+			responseBytes = body.wireLength;
+			if (encodedMessage != null) {
+				requestSent(encodedMessage.length, requestBytes, compressedMessage != null);
+			}
+			if (compressedMessage != null && isCompressionRejected(body)) {
+				this.requestCompressionRejected = true;
+				if (this.debug) {
+					debug("Website does not accept compressed request bodies (status code %s), sending uncompressed", code);
+				}
+				request = new HttpTransport.Request(url, POST, this.postHeaders, encodedMessage);
+				requestBytes += encodedMessage.length;
+				body = sendWithRetries(action, request);
+				code = body.statusCode;
+				responseBytes = body.wireLength;
+				requestSent(encodedMessage.length, encodedMessage.length, false);
 			}
+			final JsonObject json = parseResponse(body);
+			success = true;
+			return json;
+		} catch (final ApiError e) {
+			apiError = e.getError();
+			throw e;
+		} finally {
+			requestCompleted(action, code, apiError, requestBytes, responseBytes, startTime, success);
+		}
+	}
+
+	/**
+	 * @return Compressed request body, or null if it should be sent uncompressed
+	 */
+	private byte[] compressRequestBody(final byte[] body) {
+		if (this.requestCompressionThreshold < 0 || this.requestCompressionRejected
+				|| body.length < this.requestCompressionThreshold) {
+			return null;
+		}
+		final byte[] compressed = ContentEncoding.gzip(body);
+		return compressed.length < body.length ? compressed : null;
+	}
+
+	/**
+	 * Only a 415 response guarantees the website refused the body without processing the request, so the
+	 * request can safely be sent again. API errors are not used as a signal: the website sends the same error
+	 * for missing or invalid fields, and resending a POST that was processed would modify data twice.
+	 */
+	private static boolean isCompressionRejected(final ResponseBody body) {
+		return body.statusCode == 415;
+	}
+
+	private void requestSent(final long bytes, final long wireBytes, final boolean compressed) {
+		this.requestBytes.addAndGet(bytes);
+		this.requestWireBytes.addAndGet(wireBytes);
+		if (compressed) {
+			this.compressedRequests.incrementAndGet();
+		}
+	}
+
+	private void responseRead(final long wireBytes, final long bytes, final boolean compressed) {
+		this.responseWireBytes.addAndGet(wireBytes);
+		this.responseBytes.addAndGet(bytes);
+		if (compressed) {
+			this.compressedResponses.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return Start time to pass to {@link #requestCompleted}
+	 */
+	private long requestStarted(final Action action) {
+		if (this.listeners.length == 0) {
+			return 0;
+		}
+		for (final RequestListener listener : this.listeners) {
+			listener.requestStarted(action);
 		}
+		return System.nanoTime();
+	}
+
+	private void requestCompleted(final Action action, final int statusCode, final int apiError, final long requestBytes,
+			final long responseBytes, final long startTime, final boolean success) {
+		if (this.listeners.length == 0) {
+			return;
+		}
+		final long latency = System.nanoTime() - startTime;
+		for (final RequestListener listener : this.listeners) {
+			listener.requestCompleted(action, statusCode, apiError, requestBytes, responseBytes, latency, success);
+		}
+	}
 
-		String response = new String(bytes, StandardCharsets.UTF_8);
+	private JsonObject parseResponse(final ResponseBody body) throws NamelessException {
+		final int code = body.statusCode;
 
-		debug("Website response below\n-----------------\n%s\n-----------------", response);
+		if (code >= 400 && body.length == 0) {
+			throw new NamelessException("Website sent empty response with code " + code);
+		}
+
+		if (this.debug) {
+			debug("Website response below\n-----------------\n%s\n-----------------", body);
+		}
 
 		JsonObject json;
 
 		try {
-			json = JsonParser.parseString(response).getAsJsonObject();
-		} catch (final JsonSyntaxException | IllegalStateException e) {
+			json = this.codec.decode(body.bytes, 0, body.length).getAsJsonObject();
+		} catch (final JsonParseException | IllegalStateException e) {
+			String response = body.toString();
 			if (!response.endsWith("\n")) {
 				response = response + "\n";
 			}
-			final int code = connection.getResponseCode();
 			String message = e.getMessage() + "\n"
 					+ "Unable to parse json. Received response code " + code + ". Website response:\n"
 					+ "-----------------\n"
@@ -168,8 +603,6 @@ public class RequestHandler {
 			throw new NamelessException(message, e);
 		}
 
-		connection.disconnect();
-
 		if (!json.has("error")) {
 			throw new NamelessException("Unexpected response from website (missing json key 'error')");
 		}
@@ -181,13 +614,310 @@ public class RequestHandler {
 		return json;
 	}
 
-	private static byte[] getBytesFromInputStream(final InputStream is) throws IOException {
-	    final ByteArrayOutputStream os = new ByteArrayOutputStream();
-	    final byte[] buffer = new byte[0xFFFF];
-	    for (int len = is.read(buffer); len != -1; len = is.read(buffer)) {
-	        os.write(buffer, 0, len);
-	    }
-	    return os.toByteArray();
+	private ResponseBody sendWithRetries(final Action action, final HttpTransport.Request request) throws NamelessException {
+		for (int attempt = 1; ; attempt++) {
+			ResponseBody body = null;
+			IOException failure = null;
+			try {
+				body = send(action, request);
+			} catch (final IOException e) {
+				failure = e;
+			}
+
+			if (failure != null || RetryPolicy.isRetryableStatus(body.statusCode)) {
+				final long delay = this.retryPolicy.retryDelay(action, attempt, body != null ? body.retryAfter : null);
+				if (delay >= 0) {
+					if (this.debug) {
+						debug("Attempt %s failed (%s), retrying in %sms", attempt,
+								failure != null ? failure : "status code " + body.statusCode, TimeUnit.NANOSECONDS.toMillis(delay));
+					}
+					this.retries.incrementAndGet();
+					sleepBeforeRetry(delay);
+					continue;
+				}
+			}
+
+			if (failure != null) {
+				throw new NamelessException(failure);
+			}
+			return body;
+		}
+	}
+
+	private static void sleepBeforeRetry(final long delay) throws NamelessException {
+		try {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NamelessException("Interrupted while waiting to retry request", e);
+		}
+	}
+
+	/**
+	 * Send a request once, through the circuit breaker and limiter
+	 */
+	private ResponseBody send(final Action action, final HttpTransport.Request request) throws NamelessException, IOException {
+		final boolean probe = this.circuitBreaker != null && this.circuitBreaker.acquire();
+		final RequestLimiter.Permit permit = acquirePermit(action, probe);
+		int code = -1;
+		String retryAfter = null;
+		boolean complete = false;
+		try (HttpTransport.Response response = this.transport.send(request)) {
+			code = response.getStatusCode();
+			retryAfter = response.getHeader("Retry-After");
+			final ResponseBody body;
+			try (ContentEncoding.CountingInputStream wireIn = new ContentEncoding.CountingInputStream(response.getBody());
+					InputStream in = ContentEncoding.decode(wireIn, response.getHeader("Content-Encoding"))) {
+				final boolean compressed = in != wireIn;
+				// Content-Length is the compressed size, so it can't be used to size the buffer
+				body = readBody(in, compressed ? null : response.getHeader("Content-Length"), code, retryAfter);
+				body.wireLength = wireIn.getCount();
+				responseRead(body.wireLength, body.length, compressed);
+			}
+			complete = true;
+			return body;
+		} finally {
+			if (permit != null) {
+				permit.release(code, retryAfter);
+			}
+			if (this.circuitBreaker != null) {
+				this.circuitBreaker.record(probe, complete && code < 500);
+			}
+		}
+	}
+
+	private RequestLimiter.Permit acquirePermit(final Action action, final boolean probe) throws NamelessException {
+		if (this.limiter == null) {
+			return null;
+		}
+
+		try {
+			return this.limiter.acquire(action);
+		} catch (final NamelessException e) {
+			if (this.circuitBreaker != null) {
+				this.circuitBreaker.cancel(probe);
+			}
+			throw e;
+		}
+	}
+
+	private void requestFailed(final RequestLimiter.Permit permit, final boolean probe) {
+		if (permit != null) {
+			permit.release(-1, null);
+		}
+		if (this.circuitBreaker != null) {
+			this.circuitBreaker.record(probe, false);
+		}
+	}
+
+	/**
+	 * Read a response body. Small responses are read into a buffer that is reused by the next request
+	 * on the same thread, so the returned body must not be used after the response has been parsed.
+	 *
+	 * @param contentLength value of the Content-Length header, used to size the buffer. May be null.
+	 */
+	private static ResponseBody readBody(final InputStream in, final String contentLength,
+			final int statusCode, final String retryAfter) throws IOException {
+		int expectedLength = -1;
+		if (contentLength != null) {
+			try {
+				final long length = Long.parseLong(contentLength.trim());
+				if (length >= 0 && length < Integer.MAX_VALUE - 8) {
+					expectedLength = (int) length;
+				}
+			} catch (final NumberFormatException ignored) {}
+		}
+
+		byte[] buffer = RESPONSE_BUFFER.get();
+		if (expectedLength >= buffer.length) {
+			// One extra byte, so the final read returning -1 doesn't need to grow the buffer
+			buffer = new byte[expectedLength + 1];
+		}
+
+		int length = 0;
+		int read;
+		while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+
+		if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+			RESPONSE_BUFFER.set(buffer);
+		}
+
+		return new ResponseBody(buffer, length, statusCode, retryAfter);
+	}
+
+	/**
+	 * Response of {@link #getStreaming(Action, Object...)}. The request is reported to listeners when the
+	 * response is closed, as successful unless {@link #failed(int)} was called. Not thread safe.
+	 */
+	static final class StreamingResponse implements Closeable {
+
+		private final JsonReader reader;
+		private final Completion completion;
+		private boolean failed = false;
+		private int apiError = RequestListener.NO_API_ERROR;
+		private boolean closed = false;
+
+		private StreamingResponse(final JsonReader reader, final Completion completion) {
+			this.reader = reader;
+			this.completion = completion;
+		}
+
+		JsonReader getReader() {
+			return this.reader;
+		}
+
+		/**
+		 * Mark the request as failed, because the response could not be read or contains an API error
+		 *
+		 * @param apiError {@link ApiError} code sent by the website, or {@link RequestListener#NO_API_ERROR}
+		 */
+		void failed(final int apiError) {
+			this.failed = true;
+			this.apiError = apiError;
+		}
+
+		@Override
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			try {
+				this.reader.close();
+			} catch (final IOException ignored) {
+			} finally {
+				this.completion.completed(this.apiError, !this.failed);
+			}
+		}
+
+		@FunctionalInterface
+		private interface Completion {
+
+			void completed(int apiError, boolean success);
+
+		}
+
+	}
+
+	private static class ResponseBody {
+
+		private final byte[] bytes;
+		private final int length;
+		private final int statusCode;
+		private final String retryAfter;
+		private long wireLength; // size before decompression
+
+		ResponseBody(final byte[] bytes, final int length, final int statusCode, final String retryAfter) {
+			this.bytes = bytes;
+			this.length = length;
+			this.statusCode = statusCode;
+			this.retryAfter = retryAfter;
+			this.wireLength = length;
+		}
+
+		@Override
+		public String toString() {
+			return new String(this.bytes, 0, this.length, StandardCharsets.UTF_8);
+		}
+
+	}
+
+	/**
+	 * Request sizes are counted for requests that received a response, response sizes for all
+	 * responses that were read completely. Retries are included.
+	 */
+	public static class TransferStatistics {
+
+		private final long responseWireBytes;
+		private final long responseBytes;
+		private final long compressedResponses;
+		private final long requestWireBytes;
+		private final long requestBytes;
+		private final long compressedRequests;
+		private final boolean requestCompression;
+
+		TransferStatistics(final long responseWireBytes, final long responseBytes, final long compressedResponses,
+				final long requestWireBytes, final long requestBytes, final long compressedRequests,
+				final boolean requestCompression) {
+			this.responseWireBytes = responseWireBytes;
+			this.responseBytes = responseBytes;
+			this.compressedResponses = compressedResponses;
+			this.requestWireBytes = requestWireBytes;
+			this.requestBytes = requestBytes;
+			this.compressedRequests = compressedRequests;
+			this.requestCompression = requestCompression;
+		}
+
+		/**
+		 * @return Total size of response bodies as received
+		 */
+		public long getResponseWireBytes() {
+			return this.responseWireBytes;
+		}
+
+		/**
+		 * @return Total size of response bodies after decompression
+		 */
+		public long getResponseBytes() {
+			return this.responseBytes;
+		}
+
+		/**
+		 * @return Number of responses the website sent compressed
+		 */
+		public long getCompressedResponses() {
+			return this.compressedResponses;
+		}
+
+		/**
+		 * @return Total size of request bodies as sent
+		 */
+		public long getRequestWireBytes() {
+			return this.requestWireBytes;
+		}
+
+		/**
+		 * @return Total size of request bodies before compression
+		 */
+		public long getRequestBytes() {
+			return this.requestBytes;
+		}
+
+		/**
+		 * @return Number of request bodies sent compressed
+		 */
+		public long getCompressedRequests() {
+			return this.compressedRequests;
+		}
+
+		/**
+		 * @return Number of bytes not transferred thanks to compression, in both directions
+		 */
+		public long getSavedBytes() {
+			return this.responseBytes - this.responseWireBytes + this.requestBytes - this.requestWireBytes;
+		}
+
+		/**
+		 * @return true if large request bodies are compressed, false if disabled or the website did not accept them
+		 * @see NamelessApiBuilder#compressRequests(int)
+		 */
+		public boolean isRequestCompressionEnabled() {
+			return this.requestCompression;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("TransferStatistics[responseWireBytes=%s, responseBytes=%s, compressedResponses=%s, "
+					+ "requestWireBytes=%s, requestBytes=%s, compressedRequests=%s, requestCompression=%s]",
+					this.responseWireBytes, this.responseBytes, this.compressedResponses,
+					this.requestWireBytes, this.requestBytes, this.compressedRequests, this.requestCompression);
+		}
+
 	}
 
 	public enum Action {
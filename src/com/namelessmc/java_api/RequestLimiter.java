@@ -0,0 +1,443 @@
+package com.namelessmc.java_api;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.Validate;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Limits how hard the website is hit, configured using {@link NamelessApiBuilder#limiter(RequestLimiter)}.
+ * Requests wait before they are sent if:
+ * <ul>
+ * <li>a token bucket (global, or for the request's action) is empty</li>
+ * <li>the number of requests in progress has reached the concurrency limit</li>
+ * <li>the website asked to slow down using a {@code Retry-After} header</li>
+ * </ul>
+ *
+ * <p>If adaptive concurrency is enabled, the concurrency limit is adjusted using AIMD: it increases slowly
+ * while responses are fast and successful, and is halved when a response is slow, fails, or has status
+ * 429 or 5xx.</p>
+ *
+ * <p>The number of waiting requests and the time a request may wait are bounded. Requests that can't be
+ * queued or wait too long fail with {@link RequestRejectedException}, instead of piling up threads.</p>
+ */
+public class RequestLimiter {
+
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = this.lock.newCondition();
+
+	private final TokenBucket globalBucket; // null if not limited
+	private final TokenBucket[] actionBuckets; // by action ordinal, null if not limited
+
+	private final boolean adaptive;
+	private final int minConcurrency;
+	private final int maxConcurrency;
+	private final long latencyThresholdNanos;
+	private final int maxQueued;
+	private final long maxWaitNanos;
+
+	// Guarded by lock
+	private double concurrencyLimit;
+	private int inFlight = 0;
+	private int waiting = 0;
+	private long pausedUntil;
+	private long delayed = 0;
+	private long rejected = 0;
+	private long limitDecreases = 0;
+
+	private RequestLimiter(final Builder builder) {
+		this.globalBucket = builder.globalRate > 0 ? new TokenBucket(builder.globalRate, builder.globalBurst) : null;
+		this.actionBuckets = new TokenBucket[Action.values().length];
+		builder.actionRates.forEach((action, rate) ->
+				this.actionBuckets[action.ordinal()] = new TokenBucket(rate[0], (int) rate[1]));
+
+		this.adaptive = builder.adaptive;
+		this.minConcurrency = builder.minConcurrency;
+		this.maxConcurrency = builder.maxConcurrency;
+		this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(builder.latencyThreshold);
+		this.maxQueued = builder.maxQueued;
+		this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxWait);
+
+		this.concurrencyLimit = builder.adaptive ? builder.initialConcurrency : builder.maxConcurrency;
+		this.pausedUntil = System.nanoTime();
+	}
+
+	/**
+	 * Wait until a request may be sent. The permit must be released when the response has been received.
+	 *
+	 * @throws RequestRejectedException if the queue is full, or the request would have to wait too long
+	 */
+	Permit acquire(final Action action) throws NamelessException {
+		final TokenBucket actionBucket = this.actionBuckets[action.ordinal()];
+
+		this.lock.lock();
+		try {
+			boolean queued = false;
+			final long deadline = System.nanoTime() + this.maxWaitNanos;
+			try {
+				while (true) {
+					final long now = System.nanoTime();
+					long waitNanos;
+					if (this.pausedUntil - now > 0) {
+						waitNanos = this.pausedUntil - now;
+					} else if (this.inFlight >= (int) this.concurrencyLimit) {
+						waitNanos = Long.MAX_VALUE; // until a request completes
+					} else {
+						waitNanos = Math.max(
+								this.globalBucket != null ? this.globalBucket.nanosUntilAvailable(now) : 0,
+								actionBucket != null ? actionBucket.nanosUntilAvailable(now) : 0);
+						if (waitNanos == 0) {
+							if (this.globalBucket != null) {
+								this.globalBucket.take();
+							}
+							if (actionBucket != null) {
+								actionBucket.take();
+							}
+							this.inFlight++;
+							return new Permit(now, this.limitDecreases);
+						}
+					}
+
+					if (!queued) {
+						if (this.waiting >= this.maxQueued) {
+							this.rejected++;
+							throw new RequestRejectedException("Too many requests waiting to be sent (" + this.waiting + ")");
+						}
+						queued = true;
+						this.waiting++;
+						this.delayed++;
+					}
+
+					final long remaining = deadline - now;
+					if (remaining <= 0 || (waitNanos != Long.MAX_VALUE && waitNanos > remaining)) {
+						this.rejected++;
+						throw new RequestRejectedException("Request would have to wait longer than "
+								+ TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos) + "ms to be sent");
+					}
+
+					this.changed.awaitNanos(Math.min(waitNanos, remaining));
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new NamelessException("Interrupted while waiting to send request", e);
+			} finally {
+				if (queued) {
+					this.waiting--;
+				}
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void release(final Permit permit, final int statusCode, final String retryAfter) {
+		final long now = System.nanoTime();
+		final long latency = (permit.responseTime != 0 ? permit.responseTime : now) - permit.startTime;
+		final long retryAfterNanos = statusCode == 429 || statusCode == 503 ? parseRetryAfter(retryAfter) : -1;
+
+		this.lock.lock();
+		try {
+			this.inFlight--;
+
+			if (retryAfterNanos > 0 && now + retryAfterNanos - this.pausedUntil > 0) {
+				this.pausedUntil = now + retryAfterNanos;
+			}
+
+			if (this.adaptive) {
+				final boolean overloaded = statusCode == -1 || statusCode == 429 || statusCode >= 500
+						|| latency > this.latencyThresholdNanos;
+				if (overloaded) {
+					// Don't halve the limit again for each request that was sent before the previous decrease
+					if (permit.limitDecreases == this.limitDecreases && this.concurrencyLimit > this.minConcurrency) {
+						this.concurrencyLimit = Math.max(this.minConcurrency, this.concurrencyLimit / 2);
+						this.limitDecreases++;
+					}
+				} else {
+					this.concurrencyLimit = Math.min(this.maxConcurrency, this.concurrencyLimit + 1 / this.concurrencyLimit);
+				}
+			}
+
+			this.changed.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * @param retryAfter value of a Retry-After header, either a number of seconds or a HTTP date
+	 * @return Nanoseconds to wait, -1 if not present or invalid
+	 */
+	static long parseRetryAfter(final String retryAfter) {
+		if (retryAfter == null) {
+			return -1;
+		}
+
+		final String value = retryAfter.trim();
+		try {
+			return TimeUnit.SECONDS.toNanos(Long.parseLong(value));
+		} catch (final NumberFormatException ignored) {}
+
+		try {
+			final ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+			return TimeUnit.MILLISECONDS.toNanos(date.toInstant().toEpochMilli() - System.currentTimeMillis());
+		} catch (final DateTimeParseException e) {
+			return -1;
+		}
+	}
+
+	public LimiterStatistics getStatistics() {
+		this.lock.lock();
+		try {
+			return new LimiterStatistics((int) this.concurrencyLimit, this.inFlight, this.waiting,
+					this.delayed, this.rejected, this.limitDecreases);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Permission to send one request
+	 */
+	final class Permit {
+
+		private final long startTime;
+		private final long limitDecreases;
+		private long responseTime = 0;
+		private boolean released = false;
+
+		private Permit(final long startTime, final long limitDecreases) {
+			this.startTime = startTime;
+			this.limitDecreases = limitDecreases;
+		}
+
+		/**
+		 * Record that response headers have been received, for responses that are read incrementally after.
+		 * The latency used for adaptive concurrency excludes the time spent reading the body.
+		 */
+		void responseReceived() {
+			this.responseTime = System.nanoTime();
+		}
+
+		/**
+		 * @param statusCode HTTP status code, or -1 if no response was received
+		 * @param retryAfter value of the Retry-After response header, may be null
+		 */
+		void release(final int statusCode, final String retryAfter) {
+			if (!this.released) {
+				this.released = true;
+				RequestLimiter.this.release(this, statusCode, retryAfter);
+			}
+		}
+
+	}
+
+	/**
+	 * Token bucket, guarded by the limiter's lock
+	 */
+	private static class TokenBucket {
+
+		private final double tokensPerNano;
+		private final double capacity;
+		private double tokens;
+		private long lastRefill;
+
+		TokenBucket(final double permitsPerSecond, final int burst) {
+			this.tokensPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+			this.capacity = burst;
+			this.tokens = burst;
+			this.lastRefill = System.nanoTime();
+		}
+
+		long nanosUntilAvailable(final long now) {
+			this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+			this.lastRefill = now;
+			return this.tokens >= 1 ? 0 : (long) Math.ceil((1 - this.tokens) / this.tokensPerNano);
+		}
+
+		void take() {
+			this.tokens -= 1;
+		}
+
+	}
+
+	public static class LimiterStatistics {
+
+		private final int concurrencyLimit;
+		private final int inFlight;
+		private final int waiting;
+		private final long delayed;
+		private final long rejected;
+		private final long limitDecreases;
+
+		LimiterStatistics(final int concurrencyLimit, final int inFlight, final int waiting,
+				final long delayed, final long rejected, final long limitDecreases) {
+			this.concurrencyLimit = concurrencyLimit;
+			this.inFlight = inFlight;
+			this.waiting = waiting;
+			this.delayed = delayed;
+			this.rejected = rejected;
+			this.limitDecreases = limitDecreases;
+		}
+
+		/**
+		 * @return Current maximum number of concurrent requests
+		 */
+		public int getConcurrencyLimit() {
+			return this.concurrencyLimit;
+		}
+
+		/**
+		 * @return Number of requests currently in progress
+		 */
+		public int getInFlight() {
+			return this.inFlight;
+		}
+
+		/**
+		 * @return Number of requests currently waiting to be sent
+		 */
+		public int getWaiting() {
+			return this.waiting;
+		}
+
+		/**
+		 * @return Number of requests that had to wait before being sent
+		 */
+		public long getDelayed() {
+			return this.delayed;
+		}
+
+		/**
+		 * @return Number of requests that failed with {@link RequestRejectedException}
+		 */
+		public long getRejected() {
+			return this.rejected;
+		}
+
+		/**
+		 * @return Number of times the adaptive concurrency limit was decreased
+		 */
+		public long getLimitDecreases() {
+			return this.limitDecreases;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("LimiterStatistics[concurrencyLimit=%s, inFlight=%s, waiting=%s, delayed=%s, rejected=%s, limitDecreases=%s]",
+					this.concurrencyLimit, this.inFlight, this.waiting, this.delayed, this.rejected, this.limitDecreases);
+		}
+
+	}
+
+	public static class Builder {
+
+		private double globalRate = 0;
+		private int globalBurst = 1;
+		private final Map<Action, double[]> actionRates = new EnumMap<>(Action.class);
+		private boolean adaptive = false;
+		private int initialConcurrency = 4;
+		private int minConcurrency = 1;
+		private int maxConcurrency = 16;
+		private long latencyThreshold = 2000;
+		private int maxQueued = 256;
+		private long maxWait = 10000;
+
+		Builder() {
+		}
+
+		/**
+		 * Limit the rate of all requests
+		 *
+		 * @param permitsPerSecond average number of requests per second
+		 * @param burst            number of requests that may be sent at once after a quiet period
+		 */
+		public Builder globalRate(final double permitsPerSecond, final int burst) {
+			Validate.isTrue(permitsPerSecond > 0, "Rate must be positive");
+			Validate.isTrue(burst > 0, "Burst must be positive");
+			this.globalRate = permitsPerSecond;
+			this.globalBurst = burst;
+			return this;
+		}
+
+		/**
+		 * Limit the rate of requests for one action, in addition to the global rate
+		 *
+		 * @param action           API action
+		 * @param permitsPerSecond average number of requests per second
+		 * @param burst            number of requests that may be sent at once after a quiet period
+		 */
+		public Builder actionRate(final Action action, final double permitsPerSecond, final int burst) {
+			Validate.notNull(action, "Action is null");
+			Validate.isTrue(permitsPerSecond > 0, "Rate must be positive");
+			Validate.isTrue(burst > 0, "Burst must be positive");
+			this.actionRates.put(action, new double[] {permitsPerSecond, burst});
+			return this;
+		}
+
+		/**
+		 * Fixed maximum number of concurrent requests, when adaptive concurrency is disabled. Also the
+		 * upper bound for the adaptive concurrency limit. Default 16.
+		 */
+		public Builder maxConcurrency(final int maxConcurrency) {
+			Validate.isTrue(maxConcurrency > 0, "Maximum concurrency must be positive");
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		/**
+		 * Adjust the concurrency limit based on observed latency and errors
+		 *
+		 * @param initialConcurrency concurrency limit to start with
+		 * @param minConcurrency     the limit is never decreased below this value
+		 * @param latencyThreshold   responses slower than this many milliseconds decrease the limit
+		 */
+		public Builder adaptiveConcurrency(final int initialConcurrency, final int minConcurrency, final long latencyThreshold) {
+			Validate.isTrue(minConcurrency > 0, "Minimum concurrency must be positive");
+			Validate.isTrue(initialConcurrency >= minConcurrency, "Initial concurrency must not be below minimum concurrency");
+			Validate.isTrue(latencyThreshold > 0, "Latency threshold must be positive");
+			this.adaptive = true;
+			this.initialConcurrency = initialConcurrency;
+			this.minConcurrency = minConcurrency;
+			this.latencyThreshold = latencyThreshold;
+			return this;
+		}
+
+		/**
+		 * @param maxQueued maximum number of requests waiting to be sent, additional requests are rejected. Default 256.
+		 */
+		public Builder maxQueued(final int maxQueued) {
+			Validate.isTrue(maxQueued >= 0, "Maximum queued requests must not be negative");
+			this.maxQueued = maxQueued;
+			return this;
+		}
+
+		/**
+		 * @param maxWait maximum time in milliseconds a request may wait before it is sent. Default 10 seconds.
+		 */
+		public Builder maxWait(final long maxWait) {
+			Validate.isTrue(maxWait >= 0, "Maximum wait time must not be negative");
+			this.maxWait = maxWait;
+			return this;
+		}
+
+		public RequestLimiter build() {
+			Validate.isTrue(!this.adaptive || this.initialConcurrency <= this.maxConcurrency,
+					"Initial concurrency must not be above maximum concurrency");
+			return new RequestLimiter(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,43 @@
+package com.namelessmc.java_api;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+
+/**
+ * Receives a callback for every API request, registered using {@link NamelessApiBuilder#listener(RequestListener)}.
+ * Callbacks are made on the thread making the request, so they must be fast and thread safe.
+ * {@link MetricsRecorder} is a listener that keeps statistics.
+ *
+ * <p>A request is one call to the API, which may consist of multiple HTTP requests if it is retried. Each
+ * {@link #requestStarted(Action)} call is followed by exactly one {@link #requestCompleted} call, also if
+ * the request failed.</p>
+ */
+public interface RequestListener {
+
+	/**
+	 * Status code reported for requests that did not receive a response
+	 */
+	int NO_RESPONSE = -1;
+
+	/**
+	 * API error code reported for requests that did not fail with an {@link ApiError}
+	 */
+	int NO_API_ERROR = -1;
+
+	/**
+	 * @param action API action about to be requested
+	 */
+	void requestStarted(Action action);
+
+	/**
+	 * @param action        API action
+	 * @param statusCode    HTTP status code of the last response, or {@link #NO_RESPONSE}
+	 * @param apiError      {@link ApiError} code sent by the website, or {@link #NO_API_ERROR}
+	 * @param requestBytes  size of the request body as sent, after compression
+	 * @param responseBytes size of the response body as received, before decompression
+	 * @param latencyNanos  time from start to completion, including waiting for the limiter and retries
+	 * @param success       true if a response was received and returned to the caller without exception
+	 */
+	void requestCompleted(Action action, int statusCode, int apiError, long requestBytes, long responseBytes,
+			long latencyNanos, boolean success);
+
+}
@@ -0,0 +1,15 @@
+package com.namelessmc.java_api;
+
+/**
+ * Thrown when a request is not sent because the {@link RequestLimiter} queue is full, or because the
+ * request would have to wait too long before it could be sent.
+ */
+public class RequestRejectedException extends NamelessException {
+
+	private static final long serialVersionUID = 1L;
+
+	public RequestRejectedException(final String message) {
+		super(message);
+	}
+
+}
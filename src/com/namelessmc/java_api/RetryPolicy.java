@@ -0,0 +1,139 @@
+package com.namelessmc.java_api;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+import com.namelessmc.java_api.RequestHandler.Action;
+import com.namelessmc.java_api.RequestHandler.RequestMethod;
+
+/**
+ * Decides which failed requests are sent again, configured using {@link NamelessApiBuilder#retryPolicy(RetryPolicy)}.
+ * A request is retried if no response was received (connection error or timeout), or if the website responded
+ * with status 429, 502, 503 or 504. API errors are never retried.
+ *
+ * <p>By default, GET requests are retried and POST requests are not, because a POST request that failed
+ * may still have been processed by the website. Retrying can be enabled or disabled per action.</p>
+ *
+ * <p>Retries wait a random time between 0 and an exponentially increasing maximum ("full jitter"), so
+ * clients that failed at the same time don't all retry at the same time. If the website sent a
+ * {@code Retry-After} header, the retry waits at least that long, or is not attempted if it is longer
+ * than the maximum delay.</p>
+ */
+public final class RetryPolicy {
+
+	private static final RetryPolicy NONE = builder().maxAttempts(1).build();
+
+	private final int maxAttempts;
+	private final long baseDelayNanos;
+	private final long maxDelayNanos;
+	private final boolean[] retryActions; // by action ordinal
+
+	private RetryPolicy(final Builder builder) {
+		this.maxAttempts = builder.maxAttempts;
+		this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.baseDelay);
+		this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(builder.maxDelay);
+		this.retryActions = builder.retryActions.clone();
+	}
+
+	/**
+	 * @return Maximum number of times a request is sent, including the first attempt
+	 */
+	public int getMaxAttempts() {
+		return this.maxAttempts;
+	}
+
+	public boolean isRetried(final Action action) {
+		return this.retryActions[action.ordinal()];
+	}
+
+	static boolean isRetryableStatus(final int statusCode) {
+		return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+	}
+
+	/**
+	 * @param attempt    number of attempts made so far, starting at 1
+	 * @param retryAfter value of the Retry-After response header, may be null
+	 * @return Nanoseconds to wait before the next attempt, or -1 if the request should not be retried
+	 */
+	long retryDelay(final Action action, final int attempt, final String retryAfter) {
+		if (attempt >= this.maxAttempts || !this.retryActions[action.ordinal()]) {
+			return -1;
+		}
+
+		final long cap = Math.min(this.maxDelayNanos, this.baseDelayNanos << Math.min(attempt - 1, 30));
+		final long delay = cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+
+		final long retryAfterNanos = RequestLimiter.parseRetryAfter(retryAfter);
+		if (retryAfterNanos > this.maxDelayNanos) {
+			return -1;
+		}
+
+		return Math.max(delay, retryAfterNanos);
+	}
+
+	/**
+	 * @return Policy that never retries requests
+	 */
+	public static RetryPolicy none() {
+		return NONE;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static class Builder {
+
+		private int maxAttempts = 3;
+		private long baseDelay = 100;
+		private long maxDelay = 2000;
+		private final boolean[] retryActions;
+
+		Builder() {
+			final Action[] actions = Action.values();
+			this.retryActions = new boolean[actions.length];
+			for (final Action action : actions) {
+				this.retryActions[action.ordinal()] = action.method == RequestMethod.GET;
+			}
+		}
+
+		/**
+		 * @param maxAttempts maximum number of times a request is sent, including the first attempt. Default 3.
+		 */
+		public Builder maxAttempts(final int maxAttempts) {
+			Validate.isTrue(maxAttempts > 0, "Maximum attempts must be positive");
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		/**
+		 * @param baseDelay maximum delay in milliseconds before the first retry, doubled for every next retry. Default 100.
+		 * @param maxDelay  upper bound for the delay in milliseconds. Default 2000.
+		 */
+		public Builder backoff(final long baseDelay, final long maxDelay) {
+			Validate.isTrue(baseDelay >= 0, "Base delay must not be negative");
+			Validate.isTrue(maxDelay >= baseDelay, "Maximum delay must not be below base delay");
+			this.baseDelay = baseDelay;
+			this.maxDelay = maxDelay;
+			return this;
+		}
+
+		/**
+		 * Enable or disable retries for an action. Only enable retries for POST actions if sending the
+		 * request twice is harmless.
+		 */
+		public Builder retry(final Action action, final boolean retry) {
+			Validate.notNull(action, "Action is null");
+			this.retryActions[action.ordinal()] = retry;
+			return this;
+		}
+
+		public RetryPolicy build() {
+			return new RetryPolicy(this);
+		}
+
+	}
+
+}
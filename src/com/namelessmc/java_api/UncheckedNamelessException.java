@@ -0,0 +1,22 @@
+package com.namelessmc.java_api;
+
+import java.util.Objects;
+
+/**
+ * Wraps a {@link NamelessException} where checked exceptions can't be thrown, for example
+ * while consuming a stream returned by {@link NamelessAPI#streamRegisteredUsers(UserFilter...)}.
+ */
+public class UncheckedNamelessException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public UncheckedNamelessException(final NamelessException cause) {
+		super(Objects.requireNonNull(cause, "Cause is null"));
+	}
+
+	@Override
+	public synchronized NamelessException getCause() {
+		return (NamelessException) super.getCause();
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.namelessmc.java_api;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+/**
+ * Transport using {@link HttpURLConnection}. Connections are not disconnected after use, so the
+ * JDK can keep them alive and reuse them for subsequent requests to the same website.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+	private static final int DEFAULT_TIMEOUT = 10000;
+
+	private final int connectTimeout;
+	private final int readTimeout;
+
+	public UrlConnectionTransport() {
+		this(DEFAULT_TIMEOUT, DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param connectTimeout connect timeout in milliseconds
+	 * @param readTimeout    read timeout in milliseconds
+	 */
+	public UrlConnectionTransport(final int connectTimeout, final int readTimeout) {
+		this.connectTimeout = connectTimeout;
+		this.readTimeout = readTimeout;
+	}
+
+	@Override
+	public Response send(final Request request) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) request.getUrl().openConnection();
+
+		connection.setReadTimeout(this.readTimeout);
+		connection.setConnectTimeout(this.connectTimeout);
+
+		for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			connection.addRequestProperty(header.getKey(), header.getValue());
+		}
+
+		final byte[] body = request.getBody();
+		if (body != null) {
+			connection.setRequestMethod(request.getMethod().name());
+			connection.setRequestProperty("Content-Length", body.length + "");
+			connection.setDoOutput(true);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body);
+			}
+		}
+
+		try {
+			connection.getResponseCode();
+		} catch (final IOException e) {
+			connection.disconnect();
+			throw e;
+		}
+
+		return new UrlConnectionResponse(connection);
+	}
+
+	private static class UrlConnectionResponse implements Response {
+
+		private final HttpURLConnection connection;
+		private InputStream body;
+
+		private UrlConnectionResponse(final HttpURLConnection connection) {
+			this.connection = connection;
+		}
+
+		@Override
+		public int getStatusCode() throws IOException {
+			return this.connection.getResponseCode();
+		}
+
+		@Override
+		public String getHeader(final String name) {
+			return this.connection.getHeaderField(name);
+		}
+
+		@Override
+		public InputStream getBody() throws IOException {
+			if (this.body == null) {
+				if (this.connection.getResponseCode() >= 400) {
+					final InputStream error = this.connection.getErrorStream();
+					this.body = error != null ? error : new ByteArrayInputStream(new byte[0]);
+				} else {
+					this.body = this.connection.getInputStream();
+				}
+			}
+			return this.body;
+		}
+
+		@Override
+		public void close() throws IOException {
+			// Closing the stream instead of disconnecting allows the JDK to keep the connection alive
+			if (this.body != null) {
+				this.body.close();
+			} else {
+				getBody().close();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.namelessmc.java_api;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Looks up many users at once, for the bulk lookup methods in {@link NamelessAPI}. Users present in the
+ * {@link UserCache} are resolved without requests. Large batches are resolved using a single `listUsers`
+ * request, smaller batches using `userInfo` requests sent in parallel.
+ */
+final class UserBatchLoader<K> {
+
+	/**
+	 * Batches with at least this many uncached users are resolved by listing all users
+	 */
+	static final int LIST_USERS_THRESHOLD = 64;
+	static final int MAX_PARALLEL_REQUESTS = 8;
+
+	private final NamelessAPI api;
+	private final Function<K, NamelessUser> lazyUser;
+	private final ListKeyFunction<K> listKey;
+	private final Function<K, K> normalizeKey;
+
+	/**
+	 * @param lazyUser     creates a lazy user for a key, see {@link NamelessAPI#getUserLazy(int)}
+	 * @param listKey      key of a user from the `listUsers` response, null if the key type is not in that response
+	 * @param normalizeKey converts a key to the form returned by listKey
+	 */
+	UserBatchLoader(final NamelessAPI api, final Function<K, NamelessUser> lazyUser,
+			final ListKeyFunction<K> listKey, final Function<K, K> normalizeKey) {
+		this.api = api;
+		this.lazyUser = lazyUser;
+		this.listKey = listKey;
+		this.normalizeKey = normalizeKey;
+	}
+
+	Map<K, Optional<NamelessUser>> load(final Collection<K> keys) throws NamelessException {
+		Objects.requireNonNull(keys, "Keys collection is null");
+
+		final Map<K, Optional<NamelessUser>> result = new LinkedHashMap<>();
+		final List<K> uncachedKeys = new ArrayList<>();
+		final List<NamelessUser> uncachedUsers = new ArrayList<>();
+		for (final K key : keys) {
+			Objects.requireNonNull(key, "Key is null");
+			if (result.containsKey(key)) {
+				continue;
+			}
+			final NamelessUser user = this.lazyUser.apply(key);
+			if (user.loadFromCache()) {
+				result.put(key, Optional.of(user));
+			} else {
+				// Placeholder to keep keys in the order they were provided
+				result.put(key, Optional.empty());
+				uncachedKeys.add(key);
+				uncachedUsers.add(user);
+			}
+		}
+
+		if (uncachedKeys.size() >= LIST_USERS_THRESHOLD && this.listKey != null) {
+			loadUsingList(uncachedKeys, result);
+		} else if (!uncachedKeys.isEmpty()) {
+			loadUsingUserInfo(uncachedKeys, uncachedUsers, result);
+		}
+
+		return Collections.unmodifiableMap(result);
+	}
+
+	private void loadUsingList(final List<K> keys, final Map<K, Optional<NamelessUser>> result) throws NamelessException {
+		final Map<K, NamelessUser> wanted = new HashMap<>();
+		for (final K key : keys) {
+			wanted.put(this.normalizeKey.apply(key), null);
+		}
+
+		int found = 0;
+		try (Stream<NamelessUser> stream = this.api.streamRegisteredUsers()) {
+			final Iterator<NamelessUser> iterator = stream.iterator();
+			while (found < wanted.size() && iterator.hasNext()) {
+				final NamelessUser user = iterator.next();
+				final K key = this.listKey.apply(user);
+				if (key != null && wanted.containsKey(key) && wanted.get(key) == null) {
+					wanted.put(key, user);
+					found++;
+				}
+			}
+		} catch (final UncheckedNamelessException e) {
+			throw e.getCause();
+		}
+
+		for (final K key : keys) {
+			result.put(key, Optional.ofNullable(wanted.get(this.normalizeKey.apply(key))));
+		}
+	}
+
+	private void loadUsingUserInfo(final List<K> keys, final List<NamelessUser> users,
+			final Map<K, Optional<NamelessUser>> result) throws NamelessException {
+		final int count = users.size();
+		final boolean[] exists = new boolean[count];
+		ParallelTasks.run(this.api.async().getExecutor(), MAX_PARALLEL_REQUESTS, count, true,
+				i -> exists[i] = users.get(i).exists());
+
+		for (int i = 0; i < count; i++) {
+			result.put(keys.get(i), exists[i] ? Optional.of(users.get(i)) : Optional.empty());
+		}
+	}
+
+	@FunctionalInterface
+	interface ListKeyFunction<K> {
+
+		/**
+		 * @param user user from the `listUsers` response, with id, username and uuid known
+		 * @return key of this user, null if the user doesn't have one
+		 */
+		K apply(NamelessUser user) throws NamelessException;
+
+	}
+
+}
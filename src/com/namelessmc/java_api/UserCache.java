@@ -0,0 +1,312 @@
+package com.namelessmc.java_api;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Cache of user information shared by all {@link NamelessUser} objects of an API instance, configured
+ * using {@link NamelessApiBuilder#userCache(UserCache)}. Each user is stored once, and can be found by
+ * id, username, UUID and Discord id, so looking up a user that was recently loaded using any of these
+ * does not require an API request. Usernames are matched case insensitively. Entries expire a fixed time
+ * after they were loaded. When the cache is full, the least recently used user is evicted.
+ *
+ * <p>Users are invalidated when they are modified using this API. Changes made on the website are only
+ * seen after the entry has expired.</p>
+ */
+public class UserCache {
+
+	private final long expireAfterWriteNanos;
+	private final int maximumSize;
+
+	// All maps are guarded by this object. Entries are ordered from least to most recently used.
+	private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Entry> byUsername = new HashMap<>(); // lower case usernames
+	private final Map<UUID, Entry> byUuid = new HashMap<>();
+	private final Map<Long, Entry> byDiscordId = new HashMap<>();
+
+	// Incremented by every invalidation, so responses to requests started before it are not cached
+	private long version;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long expirations;
+
+	private UserCache(final Builder builder) {
+		this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(builder.expireAfterWrite);
+		this.maximumSize = builder.maximumSize;
+	}
+
+	synchronized UserSnapshot getById(final int id) {
+		return hit(this.entries.get(id));
+	}
+
+	synchronized UserSnapshot getByUsername(final String username) {
+		return hit(this.byUsername.get(usernameKey(username)));
+	}
+
+	synchronized UserSnapshot getByUuid(final UUID uuid) {
+		return hit(this.byUuid.get(uuid));
+	}
+
+	synchronized UserSnapshot getByDiscordId(final long discordId) {
+		return hit(this.byDiscordId.get(discordId));
+	}
+
+	private UserSnapshot hit(final Entry entry) {
+		if (entry == null) {
+			this.misses++;
+			return null;
+		}
+
+		if (System.nanoTime() - entry.writeTime >= this.expireAfterWriteNanos) {
+			remove(entry);
+			this.expirations++;
+			this.misses++;
+			return null;
+		}
+
+		// Lookups by another key must also mark the user as recently used
+		this.entries.get(entry.userInfo.id);
+		this.hits++;
+		return entry.userInfo;
+	}
+
+	/**
+	 * @return Version to pass to {@link #put(UserSnapshot, long)}, obtained before sending the request
+	 */
+	synchronized long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Add a user, unless any user was invalidated since the request for it was sent. The response may then
+	 * contain data from before a modification, which must not be returned to other callers.
+	 *
+	 * @param version value of {@link #getVersion()} before the request was sent
+	 * @return false if the user was not added, because an invalidation happened in the meantime
+	 */
+	synchronized boolean put(final UserSnapshot userInfo, final long version) {
+		if (version != this.version) {
+			return false;
+		}
+
+		final Entry entry = new Entry(userInfo, System.nanoTime());
+		final Entry previous = this.entries.remove(userInfo.id);
+		if (previous != null) {
+			removeKeys(previous);
+		}
+
+		this.entries.put(userInfo.id, entry);
+		this.byUsername.put(usernameKey(userInfo.username), entry);
+		if (userInfo.uuid.isPresent()) {
+			this.byUuid.put(userInfo.uuid.get(), entry);
+		}
+		if (userInfo.discordId.isPresent()) {
+			this.byDiscordId.put(userInfo.discordId.get(), entry);
+		}
+
+		final Iterator<Entry> iterator = this.entries.values().iterator();
+		while (this.entries.size() > this.maximumSize) {
+			final Entry eldest = iterator.next();
+			iterator.remove();
+			removeKeys(eldest);
+			this.evictions++;
+		}
+		return true;
+	}
+
+	/**
+	 * Remove a user from the cache, so it is loaded from the website next time it is used
+	 *
+	 * @param id NamelessMC user id
+	 */
+	public synchronized void invalidate(final int id) {
+		this.version++;
+		final Entry entry = this.entries.remove(id);
+		if (entry != null) {
+			removeKeys(entry);
+		}
+	}
+
+	/**
+	 * Remove the user matching any of the provided keys. Unknown keys are -1 or null.
+	 */
+	synchronized void invalidate(final int id, final String username, final UUID uuid, final long discordId) {
+		this.version++;
+		if (id != -1) {
+			invalidate(id);
+		}
+		if (username != null) {
+			removeIfPresent(this.byUsername.get(usernameKey(username)));
+		}
+		if (uuid != null) {
+			removeIfPresent(this.byUuid.get(uuid));
+		}
+		if (discordId != -1) {
+			removeIfPresent(this.byDiscordId.get(discordId));
+		}
+	}
+
+	private void removeIfPresent(final Entry entry) {
+		if (entry != null) {
+			remove(entry);
+		}
+	}
+
+	public synchronized void invalidateAll() {
+		this.version++;
+		this.entries.clear();
+		this.byUsername.clear();
+		this.byUuid.clear();
+		this.byDiscordId.clear();
+	}
+
+	private void remove(final Entry entry) {
+		this.entries.remove(entry.userInfo.id, entry);
+		removeKeys(entry);
+	}
+
+	private void removeKeys(final Entry entry) {
+		// Another user may have taken over a username or Discord account, only remove keys still pointing to this entry
+		final UserSnapshot userInfo = entry.userInfo;
+		this.byUsername.remove(usernameKey(userInfo.username), entry);
+		if (userInfo.uuid.isPresent()) {
+			this.byUuid.remove(userInfo.uuid.get(), entry);
+		}
+		if (userInfo.discordId.isPresent()) {
+			this.byDiscordId.remove(userInfo.discordId.get(), entry);
+		}
+	}
+
+	private static String usernameKey(final String username) {
+		return username.toLowerCase(Locale.ROOT);
+	}
+
+	public synchronized CacheStatistics getStatistics() {
+		return new CacheStatistics(this.hits, this.misses, this.evictions, this.expirations, this.entries.size());
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	private static class Entry {
+
+		private final UserSnapshot userInfo;
+		private final long writeTime;
+
+		Entry(final UserSnapshot userInfo, final long writeTime) {
+			this.userInfo = userInfo;
+			this.writeTime = writeTime;
+		}
+
+	}
+
+	public static class CacheStatistics {
+
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final long expirations;
+		private final int size;
+
+		CacheStatistics(final long hits, final long misses, final long evictions, final long expirations, final int size) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.expirations = expirations;
+			this.size = size;
+		}
+
+		/**
+		 * @return Number of lookups answered from the cache
+		 */
+		public long getHits() {
+			return this.hits;
+		}
+
+		/**
+		 * @return Number of lookups that required an API request, including lookups of expired users
+		 */
+		public long getMisses() {
+			return this.misses;
+		}
+
+		/**
+		 * @return Fraction of lookups answered from the cache, 1 if there have been no lookups
+		 */
+		public double getHitRate() {
+			final long total = this.hits + this.misses;
+			return total == 0 ? 1 : (double) this.hits / total;
+		}
+
+		/**
+		 * @return Number of users removed to make room for other users
+		 */
+		public long getEvictions() {
+			return this.evictions;
+		}
+
+		/**
+		 * @return Number of users removed because they were looked up after they expired
+		 */
+		public long getExpirations() {
+			return this.expirations;
+		}
+
+		/**
+		 * @return Number of users currently in the cache, possibly including expired users
+		 */
+		public int getSize() {
+			return this.size;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("CacheStatistics[hits=%s, misses=%s, evictions=%s, expirations=%s, size=%s]",
+					this.hits, this.misses, this.evictions, this.expirations, this.size);
+		}
+
+	}
+
+	public static class Builder {
+
+		private long expireAfterWrite = 60000;
+		private int maximumSize = 1000;
+
+		Builder() {
+		}
+
+		/**
+		 * @param expireAfterWrite time in milliseconds after which a user is loaded from the website again
+		 */
+		public Builder expireAfterWrite(final long expireAfterWrite) {
+			Validate.isTrue(expireAfterWrite > 0, "Expire time must be positive");
+			this.expireAfterWrite = expireAfterWrite;
+			return this;
+		}
+
+		/**
+		 * @param maximumSize maximum number of users to keep in the cache
+		 */
+		public Builder maximumSize(final int maximumSize) {
+			Validate.isTrue(maximumSize > 0, "Maximum size must be positive");
+			this.maximumSize = maximumSize;
+			return this;
+		}
+
+		public UserCache build() {
+			return new UserCache(this);
+		}
+
+	}
+
+}
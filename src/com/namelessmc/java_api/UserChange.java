@@ -0,0 +1,118 @@
+package com.namelessmc.java_api;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A change to a user found by {@link UserSync}
+ */
+public final class UserChange {
+
+	public enum Type {
+
+		/**
+		 * The user is new since the previous sync
+		 */
+		REGISTERED,
+		/**
+		 * The user no longer exists. {@link #getUsername()} and {@link #getUuid()} are the last known values.
+		 */
+		DELETED,
+		/**
+		 * The username changed, the old username is {@link #getPreviousUsername()}
+		 */
+		RENAMED,
+		/**
+		 * The user linked a Minecraft account, or changed it. The old UUID is {@link #getPreviousUuid()}.
+		 */
+		UUID_LINKED,
+		/**
+		 * The user no longer has a Minecraft account linked. The old UUID is {@link #getPreviousUuid()}.
+		 */
+		UUID_UNLINKED,
+		BANNED,
+		UNBANNED,
+		VERIFIED,
+		UNVERIFIED,
+
+	}
+
+	private final Type type;
+	private final int id;
+	private final String username;
+	private final Optional<UUID> uuid;
+	private final String previousUsername;
+	private final Optional<UUID> previousUuid;
+	private final boolean banned;
+	private final boolean verified;
+
+	UserChange(final Type type, final int id, final String username, final Optional<UUID> uuid,
+			final String previousUsername, final Optional<UUID> previousUuid, final boolean banned, final boolean verified) {
+		this.type = type;
+		this.id = id;
+		this.username = username;
+		this.uuid = uuid;
+		this.previousUsername = previousUsername;
+		this.previousUuid = previousUuid;
+		this.banned = banned;
+		this.verified = verified;
+	}
+
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * @return NamelessMC user id
+	 */
+	public int getId() {
+		return this.id;
+	}
+
+	public String getUsername() {
+		return this.username;
+	}
+
+	/**
+	 * @return Minecraft UUID, empty if the user has no Minecraft account linked
+	 */
+	public Optional<UUID> getUuid() {
+		return this.uuid;
+	}
+
+	/**
+	 * @return Username before a {@link Type#RENAMED} change, otherwise the same as {@link #getUsername()}
+	 */
+	public String getPreviousUsername() {
+		return this.previousUsername;
+	}
+
+	/**
+	 * @return UUID before a {@link Type#UUID_LINKED} or {@link Type#UUID_UNLINKED} change, otherwise the same as {@link #getUuid()}
+	 */
+	public Optional<UUID> getPreviousUuid() {
+		return this.previousUuid;
+	}
+
+	/**
+	 * @return Whether the user is banned after this change, or was banned before it was deleted
+	 */
+	public boolean isBanned() {
+		return this.banned;
+	}
+
+	/**
+	 * @return Whether the user is verified after this change, or was verified before it was deleted
+	 */
+	public boolean isVerified() {
+		return this.verified;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("UserChange[type=%s, id=%s, username=%s, uuid=%s, previousUsername=%s, previousUuid=%s, banned=%s, verified=%s]",
+				this.type, this.id, this.username, this.uuid.orElse(null), this.previousUsername, this.previousUuid.orElse(null),
+				this.banned, this.verified);
+	}
+
+}
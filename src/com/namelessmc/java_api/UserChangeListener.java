@@ -0,0 +1,17 @@
+package com.namelessmc.java_api;
+
+import java.util.List;
+
+/**
+ * Receives changes found by {@link UserSync}. Called on the thread running {@link UserSync#sync()}.
+ */
+@FunctionalInterface
+public interface UserChangeListener {
+
+	/**
+	 * @param changes all changes found in one sync, not empty. Changes to the same user are in the order of
+	 *                {@link UserChange.Type}, and each user has at most one change of each type.
+	 */
+	void usersChanged(List<UserChange> changes);
+
+}
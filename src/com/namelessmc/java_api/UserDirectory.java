@@ -0,0 +1,465 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Compact in-memory copy of the website's user list, for answering many lookups (for example "which user has
+ * this UUID?") without API requests. Create one using {@link NamelessAPI#getUserDirectory(UserFilter...)}.
+ *
+ * <p>Users are stored in parallel primitive arrays and found using open addressing hash tables by id, UUID
+ * and case insensitive username, so there are no objects per user for the garbage collector to trace. Lookups
+ * that return ids or indexes do not allocate. One million users take about 90 MB, half of what a list of
+ * {@link NamelessUser} objects takes.</p>
+ *
+ * <p>A directory is immutable and safe to share between threads. It is a snapshot: load a new directory to
+ * see changes made on the website.</p>
+ *
+ * <p>Use {@link #save(Path)} and {@link #open(NamelessAPI, Path)} to keep a directory on disk, so it is available
+ * at startup without downloading the user list. {@link UserSync} can do this automatically.</p>
+ */
+public final class UserDirectory {
+
+	private static final int NOT_FOUND = -1;
+	static final byte BANNED = 1;
+	static final byte VERIFIED = 2;
+
+	private final NamelessAPI api;
+	private final int size;
+	final int[] ids;
+	final long[] uuidMost;
+	final long[] uuidLeast; // both 0 if the user has no UUID
+	final char[] usernameChars; // all usernames concatenated
+	final int[] usernameOffsets; // start of each username in usernameChars, followed by the total length
+	final byte[] flags; // BANNED and VERIFIED bits
+	final boolean hasBanStatus;
+	final boolean hasVerificationStatus;
+
+	// Open addressing hash tables with linear probing, containing user index + 1 (0 is empty)
+	private final int mask;
+	private final int[] byId;
+	private final int[] byUuid;
+	private final int[] byUsername;
+
+	UserDirectory(final NamelessAPI api, final int size, final int[] ids, final long[] uuidMost, final long[] uuidLeast,
+			final char[] usernameChars, final int[] usernameOffsets, final byte[] flags, final boolean hasBanStatus,
+			final boolean hasVerificationStatus) {
+		this.api = api;
+		this.size = size;
+		this.ids = ids;
+		this.uuidMost = uuidMost;
+		this.uuidLeast = uuidLeast;
+		this.usernameChars = usernameChars;
+		this.usernameOffsets = usernameOffsets;
+		this.flags = flags;
+		this.hasBanStatus = hasBanStatus;
+		this.hasVerificationStatus = hasVerificationStatus;
+
+		// Keep the load factor at or below 0.5, so probe sequences stay short
+		final int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+		this.mask = capacity - 1;
+		this.byId = new int[capacity];
+		this.byUuid = new int[capacity];
+		this.byUsername = new int[capacity];
+		for (int i = 0; i < size; i++) {
+			insert(this.byId, hashId(ids[i]), i);
+			if (uuidMost[i] != 0 || uuidLeast[i] != 0) {
+				insert(this.byUuid, hashUuid(uuidMost[i], uuidLeast[i]), i);
+			}
+			insert(this.byUsername, hashUsername(usernameChars, usernameOffsets[i], usernameOffsets[i + 1]), i);
+		}
+	}
+
+	/**
+	 * Copy of a directory with different flags, sharing the other arrays and the lookup tables
+	 */
+	private UserDirectory(final UserDirectory directory, final byte[] flags, final boolean hasBanStatus,
+			final boolean hasVerificationStatus) {
+		this.api = directory.api;
+		this.size = directory.size;
+		this.ids = directory.ids;
+		this.uuidMost = directory.uuidMost;
+		this.uuidLeast = directory.uuidLeast;
+		this.usernameChars = directory.usernameChars;
+		this.usernameOffsets = directory.usernameOffsets;
+		this.flags = flags;
+		this.hasBanStatus = hasBanStatus;
+		this.hasVerificationStatus = hasVerificationStatus;
+		this.mask = directory.mask;
+		this.byId = directory.byId;
+		this.byUuid = directory.byUuid;
+		this.byUsername = directory.byUsername;
+	}
+
+	private void insert(final int[] table, final int hash, final int index) {
+		int slot = hash & this.mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & this.mask;
+		}
+		table[slot] = index + 1;
+	}
+
+	/**
+	 * @return Number of users
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param id NamelessMC user id
+	 * @return Index of the user with this id, or -1
+	 */
+	public int indexOfId(final int id) {
+		int slot = hashId(id) & this.mask;
+		int entry;
+		while ((entry = this.byId[slot]) != 0) {
+			if (this.ids[entry - 1] == id) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * @param mostSignificantBits  see {@link UUID#getMostSignificantBits()}
+	 * @param leastSignificantBits see {@link UUID#getLeastSignificantBits()}
+	 * @return Index of the user with this Minecraft UUID, or -1
+	 */
+	public int indexOfUuid(final long mostSignificantBits, final long leastSignificantBits) {
+		if (mostSignificantBits == 0 && leastSignificantBits == 0) {
+			return NOT_FOUND;
+		}
+
+		int slot = hashUuid(mostSignificantBits, leastSignificantBits) & this.mask;
+		int entry;
+		while ((entry = this.byUuid[slot]) != 0) {
+			if (this.uuidMost[entry - 1] == mostSignificantBits && this.uuidLeast[entry - 1] == leastSignificantBits) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return NOT_FOUND;
+	}
+
+	/**
+	 * @param uuid Minecraft UUID
+	 * @return Index of the user with this Minecraft UUID, or -1
+	 */
+	public int indexOfUuid(final UUID uuid) {
+		return indexOfUuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * @param username username, case insensitive
+	 * @return Index of the user with this username, or -1
+	 */
+	public int indexOfUsername(final CharSequence username) {
+		int hash = 0;
+		for (int i = 0; i < username.length(); i++) {
+			hash = 31 * hash + Character.toLowerCase(username.charAt(i));
+		}
+
+		int slot = mix(hash) & this.mask;
+		int entry;
+		while ((entry = this.byUsername[slot]) != 0) {
+			if (usernameEquals(entry - 1, username)) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return NOT_FOUND;
+	}
+
+	private boolean usernameEquals(final int index, final CharSequence username) {
+		final int start = this.usernameOffsets[index];
+		final int length = this.usernameOffsets[index + 1] - start;
+		if (length != username.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (Character.toLowerCase(this.usernameChars[start + i]) != Character.toLowerCase(username.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param uuid Minecraft UUID
+	 * @return Id of the user with this Minecraft UUID, or -1
+	 */
+	public int getIdByUuid(final UUID uuid) {
+		final int index = indexOfUuid(uuid);
+		return index == NOT_FOUND ? NOT_FOUND : this.ids[index];
+	}
+
+	/**
+	 * @param username username, case insensitive
+	 * @return Id of the user with this username, or -1
+	 */
+	public int getIdByUsername(final CharSequence username) {
+		final int index = indexOfUsername(username);
+		return index == NOT_FOUND ? NOT_FOUND : this.ids[index];
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return NamelessMC user id
+	 */
+	public int getId(final int index) {
+		return this.ids[checkIndex(index)];
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return Username, as a new string
+	 */
+	public String getUsername(final int index) {
+		final int start = this.usernameOffsets[checkIndex(index)];
+		return new String(this.usernameChars, start, this.usernameOffsets[index + 1] - start);
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return Minecraft UUID, or empty if the user has no UUID
+	 */
+	public Optional<UUID> getUuid(final int index) {
+		checkIndex(index);
+		if (this.uuidMost[index] == 0 && this.uuidLeast[index] == 0) {
+			return Optional.empty();
+		}
+		return Optional.of(new UUID(this.uuidMost[index], this.uuidLeast[index]));
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return True if the user is banned, false if not or if the ban status is unknown (see {@link #hasBanStatus()})
+	 */
+	public boolean isBanned(final int index) {
+		return (this.flags[checkIndex(index)] & BANNED) != 0;
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return True if the user's account is verified, false if not or if unknown (see {@link #hasVerificationStatus()})
+	 */
+	public boolean isVerified(final int index) {
+		return (this.flags[checkIndex(index)] & VERIFIED) != 0;
+	}
+
+	/**
+	 * @return True if the website sent the ban status of users, or it was loaded by {@link UserSync}
+	 */
+	public boolean hasBanStatus() {
+		return this.hasBanStatus;
+	}
+
+	/**
+	 * @return True if the website sent the verification status of users, or it was loaded by {@link UserSync}
+	 */
+	public boolean hasVerificationStatus() {
+		return this.hasVerificationStatus;
+	}
+
+	/**
+	 * Set a flag for the users with the provided ids, for flags the website did not send in the user list
+	 *
+	 * @param flag {@link #BANNED} or {@link #VERIFIED}
+	 * @return Copy of this directory with the flag set, and its status known
+	 */
+	UserDirectory withFlag(final byte flag, final UserListIterator usersWithFlag) throws NamelessException {
+		final byte[] flags = this.flags.clone();
+		try {
+			while (usersWithFlag.hasNext()) {
+				usersWithFlag.readUser();
+				final int index = indexOfId(usersWithFlag.userId);
+				if (index != NOT_FOUND) {
+					flags[index] |= flag;
+				}
+			}
+		} catch (final UncheckedNamelessException e) {
+			throw e.getCause();
+		} catch (final IOException | RuntimeException e) {
+			usersWithFlag.failed(e);
+			throw new NamelessException("Unable to parse user list", e);
+		} finally {
+			usersWithFlag.close();
+		}
+
+		return new UserDirectory(this, flags, this.hasBanStatus || flag == BANNED,
+				this.hasVerificationStatus || flag == VERIFIED);
+	}
+
+	/**
+	 * @return True if the user at {@code index} has the same username as the user at {@code otherIndex} in the other directory
+	 */
+	boolean sameUsername(final int index, final UserDirectory other, final int otherIndex) {
+		final int start = this.usernameOffsets[index];
+		final int length = this.usernameOffsets[index + 1] - start;
+		final int otherStart = other.usernameOffsets[otherIndex];
+		if (length != other.usernameOffsets[otherIndex + 1] - otherStart) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (this.usernameChars[start + i] != other.usernameChars[otherStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	boolean sameUuid(final int index, final UserDirectory other, final int otherIndex) {
+		return this.uuidMost[index] == other.uuidMost[otherIndex] && this.uuidLeast[index] == other.uuidLeast[otherIndex];
+	}
+
+	byte flags(final int index) {
+		return this.flags[index];
+	}
+
+	/**
+	 * @param index user index, between 0 and {@link #size()}
+	 * @return User object that loads other information when it is first used, like {@link NamelessAPI#getUserLazy(int, String, UUID)}
+	 */
+	public NamelessUser getUser(final int index) {
+		return new NamelessUser(this.api, getId(index), getUsername(index), getUuid(index), -1L);
+	}
+
+	/**
+	 * Write this directory to a file in a compact binary format. The file is replaced atomically where the file
+	 * system supports it, so a crash while saving leaves the old file intact.
+	 *
+	 * @param file File to write to, replaced if it exists
+	 * @throws IOException if the file could not be written
+	 */
+	public void save(final Path file) throws IOException {
+		UserDirectoryFile.write(this, file);
+	}
+
+	/**
+	 * Read a directory written by {@link #save(Path)}. The file's checksum is verified before it is used. Opening
+	 * a file with one million users takes about 0.2 seconds, mostly for rebuilding the lookup tables, which is much
+	 * faster than downloading the user list.
+	 *
+	 * @param api API instance used by {@link #getUser(int)}
+	 * @param file File to read
+	 * @return Directory as it was when it was saved
+	 * @throws java.nio.file.NoSuchFileException if the file does not exist
+	 * @throws IOException if the file could not be read, or is corrupt or written by an incompatible version
+	 */
+	public static UserDirectory open(final NamelessAPI api, final Path file) throws IOException {
+		return UserDirectoryFile.read(api, file);
+	}
+
+	private int checkIndex(final int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size);
+		}
+		return index;
+	}
+
+	private static int hashId(final int id) {
+		return mix(id);
+	}
+
+	private static int hashUuid(final long most, final long least) {
+		final long h = most * 0x9E3779B97F4A7C15L ^ least;
+		return mix((int) (h ^ (h >>> 32)));
+	}
+
+	private static int hashUsername(final char[] chars, final int start, final int end) {
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + Character.toLowerCase(chars[i]);
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * Spread bits, because the table index only uses the low bits (murmur3 finalizer)
+	 */
+	private static int mix(int h) {
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**
+	 * Read a `listUsers` response into a directory
+	 */
+	static UserDirectory load(final NamelessAPI api, final UserListIterator iterator) throws NamelessException {
+		int size = 0;
+		int[] ids = new int[1024];
+		long[] uuidMost = new long[1024];
+		long[] uuidLeast = new long[1024];
+		char[] usernameChars = new char[16 * 1024];
+		int[] usernameOffsets = new int[1025];
+		byte[] flags = new byte[1024];
+		boolean hasBanStatus = true;
+		boolean hasVerificationStatus = true;
+
+		try {
+			while (iterator.hasNext()) {
+				iterator.readUser();
+
+				if (size == ids.length) {
+					final int capacity = size * 2;
+					ids = Arrays.copyOf(ids, capacity);
+					uuidMost = Arrays.copyOf(uuidMost, capacity);
+					uuidLeast = Arrays.copyOf(uuidLeast, capacity);
+					usernameOffsets = Arrays.copyOf(usernameOffsets, capacity + 1);
+					flags = Arrays.copyOf(flags, capacity);
+				}
+
+				ids[size] = iterator.userId;
+				if (iterator.uuid != null) {
+					final String uuid = iterator.uuid;
+					if (uuid.length() < 32) {
+						throw new IllegalArgumentException("Invalid uuid: '" + uuid + "'");
+					}
+					uuidMost[size] = NamelessAPI.parseHexLong(uuid, 0);
+					uuidLeast[size] = NamelessAPI.parseHexLong(uuid, 16);
+				}
+
+				final String username = iterator.username;
+				final int start = usernameOffsets[size];
+				if (start + username.length() > usernameChars.length) {
+					usernameChars = Arrays.copyOf(usernameChars, Math.max(usernameChars.length * 2, start + username.length()));
+				}
+				username.getChars(0, username.length(), usernameChars, start);
+				usernameOffsets[size + 1] = start + username.length();
+
+				hasBanStatus &= iterator.banned != -1;
+				hasVerificationStatus &= iterator.verified != -1;
+				flags[size] = (byte) ((iterator.banned == 1 ? BANNED : 0) | (iterator.verified == 1 ? VERIFIED : 0));
+
+				size++;
+			}
+		} catch (final UncheckedNamelessException e) {
+			throw e.getCause();
+		} catch (final IOException | RuntimeException e) {
+			iterator.failed(e);
+			throw new NamelessException("Unable to parse user list", e);
+		} finally {
+			iterator.close();
+		}
+
+		return new UserDirectory(api, size,
+				Arrays.copyOf(ids, size),
+				Arrays.copyOf(uuidMost, size),
+				Arrays.copyOf(uuidLeast, size),
+				Arrays.copyOf(usernameChars, usernameOffsets[size]),
+				Arrays.copyOf(usernameOffsets, size + 1),
+				Arrays.copyOf(flags, size),
+				hasBanStatus && size > 0,
+				hasVerificationStatus && size > 0);
+	}
+
+}
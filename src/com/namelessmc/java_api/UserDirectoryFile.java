@@ -0,0 +1,313 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary file format for {@link UserDirectory}. All values are little endian.
+ *
+ * <pre>
+ * int    magic "NMUD"
+ * int    format version
+ * int    flags: 1 = ban status known, 2 = verification status known
+ * int    number of users (n)
+ * int    total length of usernames in chars (c)
+ * long   time the file was written, epoch milliseconds
+ * int[n]    ids
+ * long[n]   UUID most significant bits
+ * long[n]   UUID least significant bits
+ * int[n+1]  username offsets
+ * byte[n]   user flags
+ * char[c]   usernames
+ * long   CRC32 of everything above
+ * </pre>
+ *
+ * Hash indexes are not stored, they are rebuilt when the file is read.
+ */
+final class UserDirectoryFile {
+
+	private static final int MAGIC = 0x4E4D5544; // NMUD
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 4 * 5 + 8;
+	private static final int TRAILER_SIZE = 8;
+
+	private UserDirectoryFile() {
+	}
+
+	private static long fileSize(final long users, final long chars) {
+		return HEADER_SIZE + users * 4 + users * 8 * 2 + (users + 1) * 4 + users + chars * 2 + TRAILER_SIZE;
+	}
+
+	/**
+	 * Write the directory to a temporary file, then replace the file, so the file is never partially written
+	 */
+	static void write(final UserDirectory directory, final Path file) throws IOException {
+		final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			final int size = directory.size();
+			final int chars = directory.usernameOffsets[size];
+			final Writer writer = new Writer(channel);
+			writer.putInt(MAGIC);
+			writer.putInt(VERSION);
+			writer.putInt((directory.hasBanStatus ? 1 : 0) | (directory.hasVerificationStatus ? 2 : 0));
+			writer.putInt(size);
+			writer.putInt(chars);
+			writer.putLong(System.currentTimeMillis());
+			for (int i = 0; i < size; i++) {
+				writer.putInt(directory.ids[i]);
+			}
+			for (int i = 0; i < size; i++) {
+				writer.putLong(directory.uuidMost[i]);
+			}
+			for (int i = 0; i < size; i++) {
+				writer.putLong(directory.uuidLeast[i]);
+			}
+			for (int i = 0; i <= size; i++) {
+				writer.putInt(directory.usernameOffsets[i]);
+			}
+			for (int i = 0; i < size; i++) {
+				writer.putByte(directory.flags[i]);
+			}
+			for (int i = 0; i < chars; i++) {
+				writer.putChar(directory.usernameChars[i]);
+			}
+			writer.finish();
+			channel.force(false);
+		}
+
+		try {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final AtomicMoveNotSupportedException e) {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Read a directory, reading each section straight into its array through a small buffer. The file is
+	 * not memory mapped, because a mapping can't be released on Java 8, and a mapped file can't be replaced
+	 * on Windows.
+	 *
+	 * @throws NoSuchFileException if the file does not exist
+	 * @throws IOException if the file could not be read, or is not a valid directory file
+	 */
+	static UserDirectory read(final NamelessAPI api, final Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long fileSize = channel.size();
+			if (fileSize < HEADER_SIZE + TRAILER_SIZE || fileSize > Integer.MAX_VALUE) {
+				throw new IOException("Invalid user directory file size: " + fileSize);
+			}
+
+			final Reader reader = new Reader(channel, fileSize - TRAILER_SIZE);
+			if (reader.getInt() != MAGIC) {
+				throw new IOException("Not a user directory file");
+			}
+			final int version = reader.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported user directory file version " + version);
+			}
+			final int flags = reader.getInt();
+			final int size = reader.getInt();
+			final int chars = reader.getInt();
+			reader.getLong(); // write time
+			// Checked before allocating arrays, so a corrupt header can't cause huge allocations
+			if (size < 0 || chars < 0 || fileSize(size, chars) != fileSize) {
+				throw new IOException("Corrupt user directory file (size mismatch)");
+			}
+
+			final int[] ids = new int[size];
+			final long[] uuidMost = new long[size];
+			final long[] uuidLeast = new long[size];
+			final int[] usernameOffsets = new int[size + 1];
+			final byte[] userFlags = new byte[size];
+			final char[] usernameChars = new char[chars];
+			reader.read(ids, size);
+			reader.read(uuidMost, size);
+			reader.read(uuidLeast, size);
+			reader.read(usernameOffsets, size + 1);
+			reader.read(userFlags, size);
+			reader.read(usernameChars, chars);
+
+			final long checksum = reader.getChecksum();
+			if (reader.getLong() != checksum) {
+				throw new IOException("Corrupt user directory file (checksum mismatch)");
+			}
+
+			for (int i = 0; i < size; i++) {
+				if (usernameOffsets[i] > usernameOffsets[i + 1]) {
+					throw new IOException("Corrupt user directory file (username offsets)");
+				}
+			}
+			if (usernameOffsets[0] != 0 || usernameOffsets[size] != chars) {
+				throw new IOException("Corrupt user directory file (username offsets)");
+			}
+
+			return new UserDirectory(api, size, ids, uuidMost, uuidLeast, usernameChars, usernameOffsets, userFlags,
+					(flags & 1) != 0, (flags & 2) != 0);
+		}
+	}
+
+	/**
+	 * Buffered reader calculating the checksum of everything before the trailer
+	 */
+	private static class Reader {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32 crc = new CRC32();
+		private long uncheckedBytes; // bytes covered by the checksum that have not been read from the file yet
+
+		Reader(final FileChannel channel, final long checkedLength) {
+			this.channel = channel;
+			this.uncheckedBytes = checkedLength;
+			this.buffer.limit(0);
+		}
+
+		private void ensure(final int bytes) throws IOException {
+			if (this.buffer.remaining() >= bytes) {
+				return;
+			}
+			this.buffer.compact();
+			while (this.buffer.position() < bytes) {
+				final int start = this.buffer.position();
+				final int read = this.channel.read(this.buffer);
+				if (read == -1) {
+					throw new IOException("Unexpected end of user directory file");
+				}
+				final int checked = (int) Math.min(read, this.uncheckedBytes);
+				this.crc.update(this.buffer.array(), start, checked);
+				this.uncheckedBytes -= checked;
+			}
+			this.buffer.flip();
+		}
+
+		int getInt() throws IOException {
+			ensure(4);
+			return this.buffer.getInt();
+		}
+
+		long getLong() throws IOException {
+			ensure(8);
+			return this.buffer.getLong();
+		}
+
+		void read(final int[] array, final int length) throws IOException {
+			for (int i = 0; i < length; ) {
+				ensure(4);
+				final int count = Math.min(length - i, this.buffer.remaining() / 4);
+				this.buffer.asIntBuffer().get(array, i, count);
+				this.buffer.position(this.buffer.position() + count * 4);
+				i += count;
+			}
+		}
+
+		void read(final long[] array, final int length) throws IOException {
+			for (int i = 0; i < length; ) {
+				ensure(8);
+				final int count = Math.min(length - i, this.buffer.remaining() / 8);
+				this.buffer.asLongBuffer().get(array, i, count);
+				this.buffer.position(this.buffer.position() + count * 8);
+				i += count;
+			}
+		}
+
+		void read(final char[] array, final int length) throws IOException {
+			for (int i = 0; i < length; ) {
+				ensure(2);
+				final int count = Math.min(length - i, this.buffer.remaining() / 2);
+				this.buffer.asCharBuffer().get(array, i, count);
+				this.buffer.position(this.buffer.position() + count * 2);
+				i += count;
+			}
+		}
+
+		void read(final byte[] array, final int length) throws IOException {
+			for (int i = 0; i < length; ) {
+				ensure(1);
+				final int count = Math.min(length - i, this.buffer.remaining());
+				this.buffer.get(array, i, count);
+				i += count;
+			}
+		}
+
+		/**
+		 * @return Checksum of everything before the trailer, must be called after reading everything before the trailer
+		 */
+		long getChecksum() {
+			return this.crc.getValue();
+		}
+
+	}
+
+	/**
+	 * Buffered writer calculating the checksum of everything written
+	 */
+	private static class Writer {
+
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+		private final CRC32 crc = new CRC32();
+
+		Writer(final FileChannel channel) {
+			this.channel = channel;
+		}
+
+		private void ensure(final int bytes) throws IOException {
+			if (this.buffer.remaining() < bytes) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			this.buffer.flip();
+			this.crc.update(this.buffer.array(), 0, this.buffer.limit());
+			while (this.buffer.hasRemaining()) {
+				this.channel.write(this.buffer);
+			}
+			this.buffer.clear();
+		}
+
+		void putByte(final byte value) throws IOException {
+			ensure(1);
+			this.buffer.put(value);
+		}
+
+		void putChar(final char value) throws IOException {
+			ensure(2);
+			this.buffer.putChar(value);
+		}
+
+		void putInt(final int value) throws IOException {
+			ensure(4);
+			this.buffer.putInt(value);
+		}
+
+		void putLong(final long value) throws IOException {
+			ensure(8);
+			this.buffer.putLong(value);
+		}
+
+		/**
+		 * Write the checksum and any buffered data
+		 */
+		void finish() throws IOException {
+			flush();
+			this.buffer.putLong(this.crc.getValue());
+			this.buffer.flip();
+			while (this.buffer.hasRemaining()) {
+				this.channel.write(this.buffer);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,235 @@
+package com.namelessmc.java_api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Reads users from a `listUsers` response one at a time, so the full user list is never in memory.
+ */
+final class UserListIterator implements Iterator<NamelessUser>, Closeable {
+
+	private final NamelessAPI api;
+	private final RequestHandler.StreamingResponse response;
+	private final JsonReader reader;
+
+	private boolean errorKeyPresent = false;
+	private boolean error = false;
+	private int errorCode = ApiError.UNKNOWN_ERROR;
+	private boolean done = false;
+
+	// Fields of the user read by the last call to readUser()
+	int userId;
+	String username;
+	String uuid; // as sent by the website, null if the user has no UUID
+	int banned; // 1 or 0, -1 if not sent by the website
+	int verified; // 1 or 0, -1 if not sent by the website
+
+	/**
+	 * Reads the response up to the start of the user array. API errors sent before the user array are thrown here.
+	 */
+	UserListIterator(final NamelessAPI api, final RequestHandler.StreamingResponse response) throws NamelessException {
+		this.api = api;
+		this.response = response;
+		this.reader = response.getReader();
+
+		try {
+			if (this.reader.peek() == JsonToken.END_DOCUMENT) {
+				throw new NamelessException("Website sent empty response");
+			}
+			this.reader.beginObject();
+			if (!advanceToUsers()) {
+				finish();
+				throw new NamelessException("Unexpected response from website (missing json key 'users')");
+			}
+		} catch (final IOException e) {
+			failed(e);
+			throw new NamelessException("Unable to parse user list", e);
+		} catch (final NamelessException | RuntimeException e) {
+			failed(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Read keys until the start of the user array
+	 *
+	 * @return false if the end of the response object was reached instead
+	 */
+	private boolean advanceToUsers() throws IOException {
+		while (this.reader.hasNext()) {
+			switch (this.reader.nextName()) {
+				case "users":
+					this.reader.beginArray();
+					return true;
+				case "error":
+					this.errorKeyPresent = true;
+					this.error = this.reader.nextBoolean();
+					break;
+				case "code":
+					this.errorCode = this.reader.nextInt();
+					break;
+				default:
+					this.reader.skipValue();
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Read the remainder of the response and check it for errors
+	 */
+	private void finish() throws IOException, NamelessException {
+		this.done = true;
+		this.reader.endObject();
+
+		if (!this.errorKeyPresent) {
+			throw new NamelessException("Unexpected response from website (missing json key 'error')");
+		}
+
+		if (this.error) {
+			throw new ApiError(this.errorCode);
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.done) {
+			return false;
+		}
+
+		try {
+			if (this.reader.hasNext()) {
+				return true;
+			}
+
+			this.reader.endArray();
+			while (advanceToUsers()) {
+				// A second user list is unexpected, skip it
+				while (this.reader.hasNext()) {
+					this.reader.skipValue();
+				}
+				this.reader.endArray();
+			}
+			finish();
+			close();
+			return false;
+		} catch (final IOException | RuntimeException e) {
+			failed(e);
+			throw new UncheckedNamelessException(new NamelessException("Unable to parse user list", e));
+		} catch (final NamelessException e) {
+			failed(e);
+			throw new UncheckedNamelessException(e);
+		}
+	}
+
+	@Override
+	public NamelessUser next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+
+		try {
+			readUser();
+			final Optional<UUID> uuid = this.uuid != null ? Optional.of(NamelessAPI.websiteUuidToJavaUuid(this.uuid)) : Optional.empty();
+			return new NamelessUser(this.api, this.userId, this.username, uuid, -1L);
+		} catch (final IOException | RuntimeException e) {
+			failed(e);
+			throw new UncheckedNamelessException(new NamelessException("Unable to parse user list", e));
+		}
+	}
+
+	/**
+	 * Read the next user into {@link #userId}, {@link #username}, {@link #uuid}, {@link #banned} and {@link #verified}, without creating a
+	 * {@link NamelessUser}. Must only be called after {@link #hasNext()} returned true.
+	 */
+	void readUser() throws IOException {
+		int id = -1;
+		String username = null;
+		String uuid = null;
+		int banned = -1;
+		int verified = -1;
+
+		this.reader.beginObject();
+		while (this.reader.hasNext()) {
+			switch (this.reader.nextName()) {
+				case "id":
+					id = this.reader.nextInt();
+					break;
+				case "username":
+					username = this.reader.nextString();
+					break;
+				case "uuid":
+					if (this.reader.peek() == JsonToken.NULL) {
+						this.reader.nextNull();
+					} else {
+						final String uuidString = this.reader.nextString();
+						if (!uuidString.isEmpty() && !uuidString.equals("none")) {
+							uuid = uuidString;
+						}
+					}
+					break;
+				case "banned":
+					banned = readFlag();
+					break;
+				case "verified":
+					verified = readFlag();
+					break;
+				default:
+					this.reader.skipValue();
+			}
+		}
+		this.reader.endObject();
+
+		if (id == -1 || username == null) {
+			throw new IllegalStateException("User in list is missing id or username");
+		}
+
+		this.userId = id;
+		this.username = username;
+		this.uuid = uuid;
+		this.banned = banned;
+		this.verified = verified;
+	}
+
+	/**
+	 * Read a boolean sent as true/false, 1/0 or "1"/"0"
+	 *
+	 * @return 1 or 0, -1 if null
+	 */
+	private int readFlag() throws IOException {
+		switch (this.reader.peek()) {
+			case BOOLEAN:
+				return this.reader.nextBoolean() ? 1 : 0;
+			case NULL:
+				this.reader.nextNull();
+				return -1;
+			default:
+				final String value = this.reader.nextString();
+				return value.equals("1") || value.equalsIgnoreCase("true") ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Report the request as failed to request listeners, and close the response
+	 *
+	 * @param cause exception thrown while reading the response, reported with its code if it is an {@link ApiError}
+	 */
+	void failed(final Exception cause) {
+		this.response.failed(cause instanceof ApiError ? ((ApiError) cause).getError() : RequestListener.NO_API_ERROR);
+		close();
+	}
+
+	@Override
+	public void close() {
+		this.done = true;
+		this.response.close();
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.namelessmc.java_api;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Immutable copy of a `userInfo` response. The response is decoded once, so the JSON tree can be garbage
+ * collected and getters in {@link NamelessUser} only read fields. Values the website did not send are
+ * null, false or 0.
+ */
+final class UserSnapshot {
+
+	private static final Optional<Group> NO_GROUP = Optional.empty();
+
+	final int id;
+	final String username;
+	final String displayName;
+	final Optional<UUID> uuid;
+	final Optional<Long> discordId;
+	final long registeredTimestamp; // epoch seconds
+	final long lastOnlineTimestamp; // epoch seconds
+	final boolean banned;
+	final boolean verified;
+	final String language;
+	final VerificationInfo verificationInfo;
+	final List<Group> groups; // sorted from low to high order
+	final Optional<Group> primaryGroup;
+	final boolean staff;
+
+	/**
+	 * @param userInfo response of the `userInfo` API method, for a user that exists
+	 * @param registry registry providing shared group instances
+	 */
+	UserSnapshot(final JsonObject userInfo, final GroupRegistry registry) {
+		this.id = userInfo.get("id").getAsInt();
+		this.username = userInfo.get("username").getAsString();
+		this.displayName = getString(userInfo, "displayname");
+
+		final String uuid = getString(userInfo, "uuid");
+		if (uuid == null || uuid.equals("none") || uuid.isEmpty()) {
+			this.uuid = Optional.empty();
+		} else {
+			this.uuid = Optional.of(NamelessAPI.websiteUuidToJavaUuid(uuid));
+		}
+
+		final JsonElement discordId = userInfo.get("discord_id");
+		this.discordId = discordId == null || discordId.isJsonNull() ? Optional.empty() : Optional.of(discordId.getAsLong());
+
+		this.registeredTimestamp = getLong(userInfo, "registered_timestamp");
+		this.lastOnlineTimestamp = getLong(userInfo, "last_online_timestamp");
+		this.banned = getBoolean(userInfo, "banned");
+		this.verified = getBoolean(userInfo, "validated");
+		this.language = getString(userInfo, "language");
+
+		final JsonElement verification = userInfo.get("verification");
+		this.verificationInfo = new VerificationInfo(this.verified,
+				verification != null && verification.isJsonObject() ? verification.getAsJsonObject() : new JsonObject());
+
+		final JsonArray groupsJson = userInfo.getAsJsonArray("groups");
+		final Group[] groups = new Group[groupsJson != null ? groupsJson.size() : 0];
+		boolean staff = false;
+		for (int i = 0; i < groups.length; i++) {
+			groups[i] = registry.intern(groupsJson.get(i).getAsJsonObject());
+			staff |= groups[i].isStaff();
+		}
+		Arrays.sort(groups);
+		this.groups = groups.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(groups));
+		this.primaryGroup = groups.length == 0 ? NO_GROUP : Optional.of(groups[0]);
+		this.staff = staff;
+	}
+
+	private static String getString(final JsonObject json, final String key) {
+		final JsonElement element = json.get(key);
+		return element == null || element.isJsonNull() ? null : element.getAsString();
+	}
+
+	private static long getLong(final JsonObject json, final String key) {
+		final JsonElement element = json.get(key);
+		return element == null || element.isJsonNull() ? 0 : element.getAsLong();
+	}
+
+	private static boolean getBoolean(final JsonObject json, final String key) {
+		final JsonElement element = json.get(key);
+		return element != null && !element.isJsonNull() && element.getAsBoolean();
+	}
+
+}
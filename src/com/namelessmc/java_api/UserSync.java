@@ -0,0 +1,218 @@
+package com.namelessmc.java_api;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.namelessmc.java_api.UserChange.Type;
+
+/**
+ * Finds changes to the website's users by comparing the user list with the list of the previous sync. Call
+ * {@link #sync()} periodically, for example every few minutes from a scheduler, and react to changes using
+ * {@link #addListener(UserChangeListener)} instead of processing all users every time.
+ *
+ * <p>A sync takes one {@code listUsers} request if the website includes ban and verification status in the
+ * user list. Otherwise, the banned and verified users are requested separately, for three requests in total.
+ * Comparing takes linear time. The first sync only loads the user list and reports no changes.</p>
+ *
+ * <p>With a snapshot file, the user list is saved after every sync that found changes. Call {@link #loadSnapshot()}
+ * at startup so the directory is available immediately, then {@link #syncAsync()} to update it in the background.
+ * The first sync then reports all changes made while the application was not running.</p>
+ */
+public final class UserSync {
+
+	private final NamelessAPI api;
+	private final Path snapshotFile;
+	private final List<UserChangeListener> listeners = new CopyOnWriteArrayList<>();
+	private final Object syncLock = new Object();
+	private volatile UserDirectory directory = null;
+	private boolean snapshotCurrent = false; // snapshot file contains the current directory
+
+	public UserSync(final NamelessAPI api) {
+		this.api = Objects.requireNonNull(api, "API is null");
+		this.snapshotFile = null;
+	}
+
+	/**
+	 * @param api API instance
+	 * @param snapshotFile File to save the user list to after each sync, see {@link UserDirectory#save(Path)}
+	 */
+	public UserSync(final NamelessAPI api, final Path snapshotFile) {
+		this.api = Objects.requireNonNull(api, "API is null");
+		this.snapshotFile = Objects.requireNonNull(snapshotFile, "Snapshot file is null");
+	}
+
+	public void addListener(final UserChangeListener listener) {
+		this.listeners.add(Objects.requireNonNull(listener, "Listener is null"));
+	}
+
+	public void removeListener(final UserChangeListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	/**
+	 * @return User list loaded by the last sync, including ban and verification status. Empty before the first sync.
+	 */
+	public Optional<UserDirectory> getDirectory() {
+		return Optional.ofNullable(this.directory);
+	}
+
+	/**
+	 * Use the user list saved in the snapshot file as the previous list, without any requests. Does nothing if
+	 * a sync has already completed.
+	 *
+	 * @return true if the snapshot was loaded. False if the file does not exist or could not be read, for example
+	 * because it is corrupt. The first sync then loads the user list as if there was no snapshot.
+	 * @throws IllegalStateException if this sync was created without a snapshot file
+	 */
+	public boolean loadSnapshot() {
+		if (this.snapshotFile == null) {
+			throw new IllegalStateException("No snapshot file configured");
+		}
+
+		synchronized (this.syncLock) {
+			if (this.directory != null) {
+				return false;
+			}
+
+			try {
+				this.directory = UserDirectory.open(this.api, this.snapshotFile);
+				this.snapshotCurrent = true;
+				return true;
+			} catch (final IOException e) {
+				// Missing or corrupt, the next sync saves a new snapshot
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Load the user list, compare it to the previous list and notify listeners of changes. If multiple threads
+	 * call this method at the same time, syncs are run one after the other.
+	 *
+	 * @return Changes since the previous sync, empty for the first sync
+	 * @throws NamelessException if loading the user list failed. The previous list is kept, so the next sync reports all changes since the last successful sync.
+	 * Also thrown if saving the snapshot failed, after the sync has completed and listeners have been notified.
+	 */
+	public List<UserChange> sync() throws NamelessException {
+		synchronized (this.syncLock) {
+			final UserDirectory next = load();
+			final UserDirectory previous = this.directory;
+			this.directory = next;
+			final List<UserChange> changes = previous == null
+					? Collections.emptyList()
+					: Collections.unmodifiableList(diff(previous, next));
+
+			IOException saveException = null;
+			if (this.snapshotFile != null && (!this.snapshotCurrent || !changes.isEmpty())) {
+				try {
+					next.save(this.snapshotFile);
+					this.snapshotCurrent = true;
+				} catch (final IOException e) {
+					this.snapshotCurrent = false;
+					saveException = e;
+				}
+			}
+
+			if (!changes.isEmpty()) {
+				RuntimeException listenerException = null;
+				for (final UserChangeListener listener : this.listeners) {
+					try {
+						listener.usersChanged(changes);
+					} catch (final RuntimeException e) {
+						// Still notify other listeners
+						if (listenerException == null) {
+							listenerException = e;
+						}
+					}
+				}
+				if (listenerException != null) {
+					if (saveException != null) {
+						listenerException.addSuppressed(saveException);
+					}
+					throw listenerException;
+				}
+			}
+
+			if (saveException != null) {
+				throw new NamelessException("Unable to save user snapshot " + this.snapshotFile, saveException);
+			}
+			return changes;
+		}
+	}
+
+	/**
+	 * Run {@link #sync()} on the executor of {@link NamelessAPI#async()}
+	 */
+	public CompletableFuture<List<UserChange>> syncAsync() {
+		return AsyncNamelessAPI.supply(this.api.async().getExecutor(), this::sync);
+	}
+
+	private UserDirectory load() throws NamelessException {
+		UserDirectory directory = this.api.getUserDirectory();
+		if (!directory.hasBanStatus()) {
+			directory = directory.withFlag(UserDirectory.BANNED, this.api.listUsers(UserFilter.BANNED));
+		}
+		if (!directory.hasVerificationStatus()) {
+			directory = directory.withFlag(UserDirectory.VERIFIED, this.api.listUsers(UserFilter.VERIFIED));
+		}
+		return directory;
+	}
+
+	static List<UserChange> diff(final UserDirectory previous, final UserDirectory next) {
+		final List<UserChange> changes = new ArrayList<>();
+
+		for (int i = 0; i < next.size(); i++) {
+			final int previousIndex = previous.indexOfId(next.getId(i));
+			if (previousIndex == -1) {
+				changes.add(change(Type.REGISTERED, next, i, next, i));
+				continue;
+			}
+
+			if (!next.sameUsername(i, previous, previousIndex)) {
+				changes.add(change(Type.RENAMED, next, i, previous, previousIndex));
+			}
+			if (!next.sameUuid(i, previous, previousIndex)) {
+				final Type type = next.getUuid(i).isPresent() ? Type.UUID_LINKED : Type.UUID_UNLINKED;
+				changes.add(change(type, next, i, previous, previousIndex));
+			}
+
+			final int flags = next.flags(i);
+			final int changedFlags = flags ^ previous.flags(previousIndex);
+			if ((changedFlags & UserDirectory.BANNED) != 0) {
+				final Type type = (flags & UserDirectory.BANNED) != 0 ? Type.BANNED : Type.UNBANNED;
+				changes.add(change(type, next, i, previous, previousIndex));
+			}
+			if ((changedFlags & UserDirectory.VERIFIED) != 0) {
+				final Type type = (flags & UserDirectory.VERIFIED) != 0 ? Type.VERIFIED : Type.UNVERIFIED;
+				changes.add(change(type, next, i, previous, previousIndex));
+			}
+		}
+
+		for (int i = 0; i < previous.size(); i++) {
+			if (next.indexOfId(previous.getId(i)) == -1) {
+				changes.add(change(Type.DELETED, previous, i, previous, i));
+			}
+		}
+
+		return changes;
+	}
+
+	private static UserChange change(final Type type, final UserDirectory directory, final int index,
+			final UserDirectory previous, final int previousIndex) {
+		final String username = directory.getUsername(index);
+		final Optional<UUID> uuid = directory.getUuid(index);
+		return new UserChange(type, directory.getId(index), username, uuid,
+				previous == directory ? username : previous.getUsername(previousIndex),
+				previous == directory ? uuid : previous.getUuid(previousIndex),
+				directory.isBanned(index), directory.isVerified(index));
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.namelessmc.java_api;
+
+import java.io.Reader;
+
+/**
+ * Reader decoding UTF-8 directly from a byte array, without the intermediate buffers
+ * and String copies of {@link java.io.InputStreamReader}. Malformed input is replaced
+ * by U+FFFD, like {@link String#String(byte[], java.nio.charset.Charset)} does.
+ */
+final class Utf8ByteReader extends Reader {
+
+	private static final char REPLACEMENT = '\uFFFD';
+
+	private final byte[] bytes;
+	private final int end;
+	private int position;
+	private int pendingLowSurrogate = -1;
+
+	Utf8ByteReader(final byte[] bytes, final int offset, final int length) {
+		this.bytes = bytes;
+		this.position = offset;
+		this.end = offset + length;
+	}
+
+	@Override
+	public int read(final char[] buffer, final int offset, final int length) {
+		if (length == 0) {
+			return 0;
+		}
+
+		int count = 0;
+		if (this.pendingLowSurrogate != -1) {
+			buffer[offset + count++] = (char) this.pendingLowSurrogate;
+			this.pendingLowSurrogate = -1;
+		}
+
+		final byte[] bytes = this.bytes;
+		int position = this.position;
+		while (count < length && position < this.end) {
+			final int b = bytes[position];
+			if (b >= 0) {
+				buffer[offset + count++] = (char) b;
+				position++;
+				continue;
+			}
+
+			final int sequenceLength;
+			int codePoint;
+			if ((b & 0xE0) == 0xC0) {
+				sequenceLength = 2;
+				codePoint = b & 0x1F;
+			} else if ((b & 0xF0) == 0xE0) {
+				sequenceLength = 3;
+				codePoint = b & 0x0F;
+			} else if ((b & 0xF8) == 0xF0) {
+				sequenceLength = 4;
+				codePoint = b & 0x07;
+			} else {
+				buffer[offset + count++] = REPLACEMENT;
+				position++;
+				continue;
+			}
+
+			if (position + sequenceLength > this.end) {
+				buffer[offset + count++] = REPLACEMENT;
+				position++;
+				continue;
+			}
+
+			boolean valid = true;
+			for (int i = 1; i < sequenceLength; i++) {
+				final int continuation = bytes[position + i];
+				if ((continuation & 0xC0) != 0x80) {
+					valid = false;
+					break;
+				}
+				codePoint = (codePoint << 6) | (continuation & 0x3F);
+			}
+
+			if (!valid || codePoint < (sequenceLength == 2 ? 0x80 : sequenceLength == 3 ? 0x800 : 0x10000)
+					|| codePoint > Character.MAX_CODE_POINT
+					|| (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+				buffer[offset + count++] = REPLACEMENT;
+				position++;
+				continue;
+			}
+
+			position += sequenceLength;
+			if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+				buffer[offset + count++] = (char) codePoint;
+			} else {
+				buffer[offset + count++] = Character.highSurrogate(codePoint);
+				if (count < length) {
+					buffer[offset + count++] = Character.lowSurrogate(codePoint);
+				} else {
+					this.pendingLowSurrogate = Character.lowSurrogate(codePoint);
+				}
+			}
+		}
+		this.position = position;
+
+		return count == 0 ? -1 : count;
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release
+	}
+
+}